@@ -4,11 +4,13 @@ package com.example.demoPDF;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableTransactionManagement
 @EnableConfigurationProperties
+@EnableScheduling
 public class DemoPdfApplication {
 
     public static void main(String[] args) {
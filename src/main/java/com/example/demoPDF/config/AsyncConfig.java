@@ -0,0 +1,151 @@
+package com.example.demoPDF.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Workers for background ingestion (storage copy, PDF parse, DB insert). The queue is bounded
+     * and full queues reject instead of running on the caller, so a burst of uploads cannot
+     * spill onto the request threads.
+     */
+    @Bean(name = "ingestionExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor ingestionExecutor(
+            @Value("${app.ingest.workers:2}") int workers,
+            @Value("${app.ingest.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ingest-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Separate pool for bulk uploads so catalogue imports never queue ahead of interactive
+     * uploads. When it is saturated the submitting request thread runs the task itself,
+     * which throttles how fast a ZIP archive is unpacked.
+     */
+    @Bean(name = "bulkIngestionExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor bulkIngestionExecutor(
+            @Value("${app.bulk.workers:4}") int workers,
+            @Value("${app.bulk.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bulk-ingest-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Background rewrites of stored PDFs (optimize stage). Work that does not fit in the
+     * queue is skipped rather than slowing uploads; it can be re-run per document.
+     */
+    @Bean(name = "optimizationExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor optimizationExecutor(
+            @Value("${app.pdf.optimize.workers:1}") int workers,
+            @Value("${app.pdf.optimize.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pdf-optimize-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Thumbnail rendering. A document's pages are spread over the workers, each with its
+     * own PDDocument; overflow is dropped and rendered later on first request.
+     */
+    @Bean(name = "thumbnailExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor thumbnailExecutor(
+            @Value("${app.pdf.thumbnail.workers:2}") int workers,
+            @Value("${app.pdf.thumbnail.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Page-range text extraction for large documents at ingest. Each range opens its own copy
+     * of the PDF; when the pool is saturated the ingesting thread extracts the range itself.
+     */
+    @Bean(name = "textExtractionExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor textExtractionExecutor(
+            @Value("${app.pdf.text.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 4);
+        executor.setThreadNamePrefix("text-extract-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Search index updates. A single worker keeps a document's events in order; overflow is
+     * dropped with a warning and picked up by the next reindex.
+     */
+    @Bean(name = "searchIndexExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor searchIndexExecutor(
+            @Value("${app.search.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("search-index-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Threads that write streaming responses (StreamingResponseBody), so a long catalogue
+     * download does not hold a servlet thread. Requests beyond the queue are refused.
+     */
+    @Bean(name = "streamingExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor streamingExecutor(
+            @Value("${app.stream.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 4);
+        executor.setThreadNamePrefix("stream-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
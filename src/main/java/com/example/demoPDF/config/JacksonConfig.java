@@ -0,0 +1,71 @@
+package com.example.demoPDF.config;
+
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.service.SerializationMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converters for JSON and the two binary encodings clients can ask for with an
+ * Accept header (application/cbor, application/x-jackson-smile). All three are built from
+ * the application's mapper settings, so dates and the field filter behave the same in
+ * every format, and each records its payload sizes and write times in SerializationMetrics.
+ * They replace Spring's default Jackson converters in place, so JSON stays the default
+ * when the client accepts anything.
+ */
+@Configuration
+public class JacksonConfig {
+
+    // Every property of PdfDocumentDto is written unless a response narrows it with ?fields=
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer documentFieldFilter() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(PdfDocumentDto.FIELD_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter jsonConverter(ObjectMapper objectMapper, SerializationMetrics metrics) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                metrics.record("json", outputMessage, counted -> super.writeInternal(object, type, counted));
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborConverter(Jackson2ObjectMapperBuilder builder,
+                                                                 SerializationMetrics metrics) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                metrics.record("cbor", outputMessage, counted -> super.writeInternal(object, type, counted));
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileConverter(Jackson2ObjectMapperBuilder builder,
+                                                                   SerializationMetrics metrics) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                metrics.record("smile", outputMessage, counted -> super.writeInternal(object, type, counted));
+            }
+        };
+    }
+}
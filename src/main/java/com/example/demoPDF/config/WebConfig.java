@@ -1,11 +1,25 @@
 package com.example.demoPDF.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor streamingExecutor;
+    private final long asyncTimeoutMillis;
+
+    public WebConfig(@Qualifier("streamingExecutor") ThreadPoolTaskExecutor streamingExecutor,
+                     @Value("${app.stream.timeout-ms:3600000}") long asyncTimeoutMillis) {
+        this.streamingExecutor = streamingExecutor;
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -13,4 +27,11 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*");
     }
+
+    // Streaming responses run on their own pool and may take far longer than the container's default async timeout
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.demoPDF.controller;
+
+import com.example.demoPDF.dto.ApiResponse;
+import com.example.demoPDF.dto.ChunkedUploadRequest;
+import com.example.demoPDF.dto.FileUploadResponse;
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.UploadSessionDto;
+import com.example.demoPDF.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Resumable upload protocol for files larger than the multipart limit:
+ * POST /pdf/uploads, PUT /pdf/uploads/{id}/chunks/{n}?offset=, GET /pdf/uploads/{id}
+ * to find the received offset after a failure, then POST /pdf/uploads/{id}/complete.
+ */
+@RestController
+@RequestMapping("/pdf/uploads")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<UploadSessionDto>> createSession(@Valid @RequestBody ChunkedUploadRequest request) {
+        log.info("Chunked upload requested for {} ({} bytes)", request.getFilename(), request.getTotalSize());
+        UploadSessionDto session = chunkedUploadService.createSession(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Upload session created", session));
+    }
+
+    // The chunk body is raw bytes (application/octet-stream), read straight from the servlet stream
+    @PutMapping("/{sessionId}/chunks/{chunkNumber}")
+    public ResponseEntity<ApiResponse<UploadSessionDto>> uploadChunk(
+            @PathVariable String sessionId,
+            @PathVariable int chunkNumber,
+            @RequestParam("offset") long offset,
+            HttpServletRequest request) throws IOException {
+        UploadSessionDto session = chunkedUploadService.writeChunk(sessionId, chunkNumber, offset, request.getInputStream());
+        return ResponseEntity.ok(ApiResponse.success("Chunk received", session));
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<ApiResponse<UploadSessionDto>> getSession(@PathVariable String sessionId) {
+        return ResponseEntity.ok(ApiResponse.success(chunkedUploadService.getSession(sessionId)));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<ApiResponse<FileUploadResponse>> completeSession(@PathVariable String sessionId) {
+        PdfDocumentDto savedDocument = chunkedUploadService.completeSession(sessionId);
+
+        FileUploadResponse response = new FileUploadResponse(
+                savedDocument.getId(),
+                savedDocument.getFilename(),
+                savedDocument.getFileSize(),
+                savedDocument.getPageCount(),
+                "Document uploaded successfully"
+        );
+        return ResponseEntity.ok(ApiResponse.success("Document uploaded successfully", response));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<ApiResponse<String>> abortSession(@PathVariable String sessionId) {
+        chunkedUploadService.abortSession(sessionId);
+        return ResponseEntity.ok(ApiResponse.success("Upload session aborted", sessionId));
+    }
+}
@@ -1,23 +1,65 @@
 package com.example.demoPDF.controller;
 
 import com.example.demoPDF.dto.ApiResponse;
+import com.example.demoPDF.dto.BulkUploadResponse;
+import com.example.demoPDF.dto.CursorPage;
+import com.example.demoPDF.dto.DocumentCacheStats;
+import com.example.demoPDF.dto.DocumentContent;
+import com.example.demoPDF.dto.DocumentFacets;
+import com.example.demoPDF.dto.DocumentSearchResult;
+import com.example.demoPDF.dto.DocumentTextSearchResult;
 import com.example.demoPDF.dto.FileUploadResponse;
+import com.example.demoPDF.dto.IngestionJobDto;
 import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.PdfDocumentSummaryDto;
+import com.example.demoPDF.dto.PdfMetadataDto;
+import com.example.demoPDF.dto.PdfOptimizationDto;
 import com.example.demoPDF.dto.PdfUploadRequest;
+import com.example.demoPDF.dto.SerializationStats;
+import com.example.demoPDF.dto.SuggestIndexStats;
+import com.example.demoPDF.dto.Suggestion;
+import com.example.demoPDF.dto.WatermarkCacheStats;
+import com.example.demoPDF.service.BulkUploadService;
+import com.example.demoPDF.service.DocumentExportService;
+import com.example.demoPDF.service.FacetService;
+import com.example.demoPDF.service.IngestionJobService;
+import com.example.demoPDF.service.PdfDocumentCache;
 import com.example.demoPDF.service.PdfDocumentService;
+import com.example.demoPDF.service.PdfExcerptService;
+import com.example.demoPDF.service.PdfOptimizationService;
+import com.example.demoPDF.service.SearchIndexService;
+import com.example.demoPDF.service.SerializationMetrics;
+import com.example.demoPDF.service.SuggestService;
+import com.example.demoPDF.service.ThumbnailService;
+import com.example.demoPDF.service.WatermarkCacheService;
+import com.example.demoPDF.util.HttpFileSender;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.security.Principal;
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/pdf")  // Changed from "/api/pdf" to match your frontend
@@ -27,6 +69,24 @@ import java.util.Optional;
 public class PdfDocumentController {
 
     private final PdfDocumentService pdfDocumentService;
+    private final IngestionJobService ingestionJobService;
+    private final BulkUploadService bulkUploadService;
+    private final PdfOptimizationService pdfOptimizationService;
+    private final PdfExcerptService pdfExcerptService;
+    private final ThumbnailService thumbnailService;
+    private final WatermarkCacheService watermarkCacheService;
+    private final DocumentExportService documentExportService;
+    private final SearchIndexService searchIndexService;
+    private final SuggestService suggestService;
+    private final FacetService facetService;
+    private final PdfDocumentCache pdfDocumentCache;
+    private final SerializationMetrics serializationMetrics;
+
+    @Value("${app.pdf.watermark.on-download:false}")
+    private boolean watermarkOnDownload;
+
+    @Value("${app.pdf.watermark.trusted-proxies:}")
+    private Set<String> trustedProxies;
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ApiResponse<FileUploadResponse>> uploadDocument(
@@ -63,27 +123,9 @@ public class PdfDocumentController {
                         .body(ApiResponse.error("File must be a PDF"));
             }
 
-            // Parse publication date
-            LocalDate publicationDate = null;
-            if (publicationDateStr != null && !publicationDateStr.trim().isEmpty()) {
-                try {
-                    publicationDate = LocalDate.parse(publicationDateStr);
-                    log.info("Parsed publication date: {}", publicationDate);
-                } catch (Exception e) {
-                    log.warn("Could not parse publication date: {}", publicationDateStr, e);
-                }
-            }
-
             // Create upload request
-            PdfUploadRequest request = new PdfUploadRequest();
-            request.setTitle(title != null && !title.trim().isEmpty() ? title : file.getOriginalFilename().replace(".pdf", ""));
-            request.setProductCode(productCode);
-            request.setEdition(edition);
-            request.setPublicationDate(publicationDate);
-            request.setNotes(notes);
-            request.setCreatedBy(createdBy != null ? createdBy : "system");
-
-            log.info("Created upload request: {}", request);
+            PdfUploadRequest request = buildUploadRequest(file, title, productCode, edition,
+                    publicationDateStr, notes, createdBy);
 
             // Upload document
             log.info("Calling service to upload document...");
@@ -115,6 +157,202 @@ public class PdfDocumentController {
         }
     }
 
+    // Returns as soon as the upload is staged on local disk; poll /pdf/jobs/{jobId} for the result
+    @PostMapping(value = "/upload/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<IngestionJobDto>> uploadDocumentAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "productCode", required = false) String productCode,
+            @RequestParam(value = "edition", required = false) String edition,
+            @RequestParam(value = "publicationDate", required = false) String publicationDateStr,
+            @RequestParam(value = "notes", required = false) String notes,
+            @RequestParam(value = "createdBy", required = false) String createdBy) {
+
+        log.info("Async upload received: {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("File is empty"));
+        }
+        if (!"application/pdf".equals(file.getContentType())) {
+            log.error("Invalid file type: {}", file.getContentType());
+            return ResponseEntity.badRequest().body(ApiResponse.error("File must be a PDF"));
+        }
+
+        PdfUploadRequest request = buildUploadRequest(file, title, productCode, edition,
+                publicationDateStr, notes, createdBy);
+        IngestionJobDto job = ingestionJobService.submit(file, request);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/pdf/jobs/" + job.getJobId())
+                .body(ApiResponse.success("Upload accepted for processing", job));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<IngestionJobDto>> getIngestionJob(@PathVariable String jobId) {
+        return ingestionJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(ApiResponse.success(job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Job not found: " + jobId)));
+    }
+
+    // Bulk import of many multipart files; title comes from each filename, the rest is shared
+    @PostMapping(value = "/upload/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<BulkUploadResponse>> uploadDocumentsBulk(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "productCode", required = false) String productCode,
+            @RequestParam(value = "edition", required = false) String edition,
+            @RequestParam(value = "publicationDate", required = false) String publicationDateStr,
+            @RequestParam(value = "notes", required = false) String notes,
+            @RequestParam(value = "createdBy", required = false) String createdBy) {
+
+        PdfUploadRequest defaults = buildBulkDefaults(productCode, edition, publicationDateStr, notes, createdBy);
+        BulkUploadResponse response = bulkUploadService.uploadFiles(files, defaults);
+        return ResponseEntity.ok(ApiResponse.success(
+                response.getSucceeded() + " of " + response.getTotal() + " documents uploaded", response));
+    }
+
+    // Bulk import of a ZIP sent as the raw request body, so it is not bound by the multipart size limit
+    @PostMapping(value = "/upload/bulk", consumes = {"application/zip", "application/x-zip-compressed"})
+    public ResponseEntity<ApiResponse<BulkUploadResponse>> uploadDocumentsBulkArchive(
+            @RequestParam(value = "productCode", required = false) String productCode,
+            @RequestParam(value = "edition", required = false) String edition,
+            @RequestParam(value = "publicationDate", required = false) String publicationDateStr,
+            @RequestParam(value = "notes", required = false) String notes,
+            @RequestParam(value = "createdBy", required = false) String createdBy,
+            HttpServletRequest httpRequest) throws IOException {
+
+        PdfUploadRequest defaults = buildBulkDefaults(productCode, edition, publicationDateStr, notes, createdBy);
+        BulkUploadResponse response = bulkUploadService.uploadArchive(httpRequest.getInputStream(), defaults);
+        return ResponseEntity.ok(ApiResponse.success(
+                response.getSucceeded() + " of " + response.getTotal() + " documents uploaded", response));
+    }
+
+    @GetMapping("/document/{id}/metadata")
+    public ResponseEntity<ApiResponse<PdfMetadataDto>> getDocumentMetadata(@PathVariable Long id) {
+        return pdfDocumentService.getDocumentMetadata(id)
+                .map(metadata -> ResponseEntity.ok(ApiResponse.success(metadata)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Document not found with ID: " + id)));
+    }
+
+    // Inline bytes for the browser viewer; honours Range/If-Range and conditional GET
+    // ?original=true bypasses the optimized copy
+    @GetMapping("/view/{id}")
+    public void viewDocument(@PathVariable Long id,
+                             @RequestParam(value = "original", defaultValue = "false") boolean original,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        sendDocument(id, original, false, request, response);
+    }
+
+    // ?watermark=true stamps the copy for the caller, from the rendition cache; the default is app.pdf.watermark.on-download
+    @GetMapping("/download/{id}")
+    public void downloadDocument(@PathVariable Long id,
+                                 @RequestParam(value = "original", defaultValue = "false") boolean original,
+                                 @RequestParam(value = "watermark", required = false) Boolean watermark,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!(watermark != null ? watermark : watermarkOnDownload)) {
+            sendDocument(id, original, true, request, response);
+            return;
+        }
+
+        DocumentContent watermarked = watermarkCacheService.getWatermarked(id, resolveRecipient(request));
+        HttpFileSender.send(watermarked, true, request, response);
+    }
+
+    // A PDF with just the requested pages; "to" defaults to "from" for a single page
+    @GetMapping("/document/{id}/pages")
+    public void getDocumentPages(@PathVariable Long id,
+                                 @RequestParam("from") int fromPage,
+                                 @RequestParam(value = "to", required = false) Integer toPage,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DocumentContent excerpt = pdfExcerptService.getExcerpt(id, fromPage, toPage != null ? toPage : fromPage);
+        HttpFileSender.send(excerpt, true, request, response);
+    }
+
+    // 202 while the thumbnail is still being rendered; cacheable by ETag once it exists
+    @GetMapping("/document/{id}/thumbnail/{page}")
+    public ResponseEntity<byte[]> getThumbnail(@PathVariable Long id, @PathVariable int page) {
+        return thumbnailService.getThumbnail(id, page)
+                .map(thumbnail -> ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .eTag(thumbnail.getEtag())
+                        .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                        .body(thumbnail.getImage()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .header(HttpHeaders.RETRY_AFTER, "2")
+                        .build());
+    }
+
+    @GetMapping("/document/{id}/optimization")
+    public ResponseEntity<ApiResponse<PdfOptimizationDto>> getOptimization(@PathVariable Long id) {
+        return pdfOptimizationService.getOptimization(id)
+                .map(report -> ResponseEntity.ok(ApiResponse.success(report)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Document " + id + " has not been optimized")));
+    }
+
+    // Runs the optimize stage now, e.g. for documents uploaded while it was disabled
+    @PostMapping("/document/{id}/optimize")
+    public ResponseEntity<ApiResponse<PdfOptimizationDto>> optimizeDocument(@PathVariable Long id) {
+        PdfOptimizationDto report = pdfOptimizationService.optimize(id);
+        return ResponseEntity.ok(ApiResponse.success("Document optimized", report));
+    }
+
+    // ZIP of every document for a product code, streamed entry by entry (chunked, no Content-Length)
+    @GetMapping("/export")
+    public void exportDocuments(@RequestParam("productCode") String productCode,
+                                @RequestParam(value = "edition", required = false) String edition,
+                                HttpServletResponse response) throws IOException {
+        String editionFilter = edition != null && !edition.isBlank() ? edition : null;
+        if (documentExportService.countDocuments(productCode, editionFilter) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No documents found for product code " + productCode
+                            + (editionFilter != null ? " and edition " + editionFilter : ""));
+        }
+
+        String archiveName = "export_" + productCode + (editionFilter != null ? "_" + editionFilter : "") + ".zip";
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                HttpFileSender.contentDisposition(true, archiveName.replaceAll("[\\\\/:*?\"<>|]", "_")));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        documentExportService.writeZip(productCode, editionFilter, response.getOutputStream());
+    }
+
+    // The whole catalogue as JSON, written while it is read: format=ndjson (one document per line) or json (an array)
+    @GetMapping("/documents/stream")
+    public ResponseEntity<StreamingResponseBody> streamDocuments(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        boolean ndjson;
+        if (format.equalsIgnoreCase("ndjson")) {
+            ndjson = true;
+        } else if (format.equalsIgnoreCase("json")) {
+            ndjson = false;
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be 'ndjson' or 'json'");
+        }
+        StreamingResponseBody body = out -> documentExportService.writeDocumentsJson(ndjson, out);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(body);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<DocumentCacheStats>> getDocumentCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(pdfDocumentCache.getStats()));
+    }
+
+    @GetMapping("/watermark-cache/stats")
+    public ResponseEntity<ApiResponse<WatermarkCacheStats>> getWatermarkCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(watermarkCacheService.getStats()));
+    }
+
+    // Response bytes and write time per encoding (json, cbor, smile)
+    @GetMapping("/serialization/stats")
+    public ResponseEntity<ApiResponse<List<SerializationStats>>> getSerializationStats() {
+        return ResponseEntity.ok(ApiResponse.success(serializationMetrics.getStats()));
+    }
+
     // Test endpoint to verify controller is working
     @GetMapping("/test")
     public ResponseEntity<ApiResponse<String>> testEndpoint() {
@@ -122,12 +360,29 @@ public class PdfDocumentController {
         return ResponseEntity.ok(ApiResponse.success("Controller is working!"));
     }
 
+    // fields=id,title,... returns only those properties and reads only those columns
     @GetMapping("/documents")
-    public ResponseEntity<ApiResponse<List<PdfDocumentDto>>> getAllDocuments() {
+    public ResponseEntity<?> getAllDocuments(@RequestParam(value = "fields", required = false) String fields) {
         try {
             log.debug("Fetching all documents");
-            List<PdfDocumentDto> documents = pdfDocumentService.getAllDocuments();
-            return ResponseEntity.ok(ApiResponse.success(documents));
+            Set<String> selected = new LinkedHashSet<>();
+            if (fields != null) {
+                for (String field : fields.split(",")) {
+                    if (!field.isBlank()) {
+                        selected.add(field.trim());
+                    }
+                }
+            }
+            List<PdfDocumentDto> documents = pdfDocumentService.getAllDocuments(selected);
+            if (selected.isEmpty()) {
+                return ResponseEntity.ok(ApiResponse.success(documents));
+            }
+            MappingJacksonValue body = new MappingJacksonValue(ApiResponse.success(documents));
+            body.setFilters(new SimpleFilterProvider().addFilter(PdfDocumentDto.FIELD_FILTER,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(selected)));
+            return ResponseEntity.ok(body);
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching documents: {}", e.getMessage(), e);
             return ResponseEntity
@@ -136,5 +391,145 @@ public class PdfDocumentController {
         }
     }
 
+    // Ranked full-text search over metadata and page text (same document fields as /documents, plus score and page hits)
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<DocumentSearchResult>>> searchDocuments(
+            @RequestParam("query") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(searchIndexService.search(query, limit)));
+    }
+
+    // Pages of one document matching every term, answered from the text captured at ingest
+    @GetMapping("/document/{id}/search")
+    public ResponseEntity<ApiResponse<DocumentTextSearchResult>> searchWithinDocument(
+            @PathVariable Long id, @RequestParam("q") String query) {
+        return ResponseEntity.ok(ApiResponse.success(searchIndexService.searchWithinDocument(id, query)));
+    }
+
+    @PostMapping("/search/reindex")
+    public ResponseEntity<ApiResponse<String>> rebuildSearchIndex() {
+        searchIndexService.rebuildIndex();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Search index rebuild started"));
+    }
+
+    @GetMapping("/documents/count")
+    public ResponseEntity<ApiResponse<Long>> getDocumentCount() {
+        return ResponseEntity.ok(ApiResponse.success(pdfDocumentService.getDocumentCount()));
+    }
+
+    // Keyset-paginated listing without notes; follow nextCursor until it is null
+    @GetMapping("/documents/page")
+    public ResponseEntity<ApiResponse<CursorPage<PdfDocumentSummaryDto>>> getDocumentPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(ApiResponse.success(pdfDocumentService.getDocumentPage(cursor, size)));
+    }
+
+    // Substring lookup on title, filename, product code and edition for search-as-you-type
+    @GetMapping("/documents/lookup")
+    public ResponseEntity<ApiResponse<List<PdfDocumentSummaryDto>>> lookupDocuments(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(pdfDocumentService.lookupDocuments(query, limit)));
+    }
+
+    // Type-ahead completions for titles, product codes and editions, from memory
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<Suggestion>>> suggest(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "field", required = false) String field,
+            @RequestParam(value = "rank", defaultValue = "count") String rank,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(suggestService.suggest(prefix, field, rank, limit)));
+    }
+
+    @GetMapping("/suggest/stats")
+    public ResponseEntity<ApiResponse<SuggestIndexStats>> getSuggestStats() {
+        return ResponseEntity.ok(ApiResponse.success(suggestService.getStats()));
+    }
+
+    // Catalogue counts per product code, edition and publication year; filters drill down
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<DocumentFacets>> getFacets(
+            @RequestParam(value = "productCode", required = false) String productCode,
+            @RequestParam(value = "edition", required = false) String edition,
+            @RequestParam(value = "year", required = false) Integer year) {
+        return ResponseEntity.ok(ApiResponse.success(facetService.getFacets(productCode, edition, year)));
+    }
+
+    private void sendDocument(Long id, boolean original, boolean attachment, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        DocumentContent content = pdfDocumentService.getDocumentContent(id, original)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Document not found with ID: " + id));
+        HttpFileSender.send(content, attachment, request, response);
+    }
+
+    /**
+     * Who a watermarked copy is stamped for: the authenticated user when the container has
+     * one, otherwise the client address. Forwarding headers are only believed when the
+     * request comes from a configured proxy (app.pdf.watermark.trusted-proxies); anyone else
+     * could put any name in them.
+     */
+    private String resolveRecipient(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && principal.getName() != null && !principal.getName().isBlank()) {
+            return principal.getName();
+        }
+        String remoteAddress = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isEmpty()) {
+            // The proxy appends the address it saw, so the last entry is the one it vouches for
+            String[] hops = forwardedFor.split(",");
+            return hops[hops.length - 1].trim();
+        }
+        String realIp = request.getHeader("X-Real-IP");
+        if (realIp != null && !realIp.isEmpty()) {
+            return realIp;
+        }
+        return remoteAddress;
+    }
+
+    private PdfUploadRequest buildUploadRequest(MultipartFile file, String title, String productCode, String edition,
+                                                String publicationDateStr, String notes, String createdBy) {
+        PdfUploadRequest request = new PdfUploadRequest();
+        request.setTitle(title != null && !title.trim().isEmpty() ? title : file.getOriginalFilename().replace(".pdf", ""));
+        request.setProductCode(productCode);
+        request.setEdition(edition);
+        request.setPublicationDate(parsePublicationDate(publicationDateStr));
+        request.setNotes(notes);
+        request.setCreatedBy(createdBy != null ? createdBy : "system");
+
+        log.info("Created upload request: {}", request);
+        return request;
+    }
+
+    private PdfUploadRequest buildBulkDefaults(String productCode, String edition, String publicationDateStr,
+                                               String notes, String createdBy) {
+        PdfUploadRequest defaults = new PdfUploadRequest();
+        defaults.setProductCode(productCode);
+        defaults.setEdition(edition);
+        defaults.setPublicationDate(parsePublicationDate(publicationDateStr));
+        defaults.setNotes(notes);
+        defaults.setCreatedBy(createdBy != null ? createdBy : "system");
+        return defaults;
+    }
+
+    private LocalDate parsePublicationDate(String publicationDateStr) {
+        LocalDate publicationDate = null;
+        if (publicationDateStr != null && !publicationDateStr.trim().isEmpty()) {
+            try {
+                publicationDate = LocalDate.parse(publicationDateStr);
+                log.info("Parsed publication date: {}", publicationDate);
+            } catch (Exception e) {
+                log.warn("Could not parse publication date: {}", publicationDateStr, e);
+            }
+        }
+        return publicationDate;
+    }
+
     // ... rest of your controller methods remain the same
 }
@@ -0,0 +1,18 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUploadResponse {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private List<BulkUploadResult> results;
+}
@@ -0,0 +1,20 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUploadResult {
+    private String filename;
+    private boolean success;
+    private Long documentId;
+    private Integer pageCount;
+    private String error;
+
+    public static BulkUploadResult failed(String filename, String error) {
+        return new BulkUploadResult(filename, false, null, null, error);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demoPDF.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
+
+@Data
+public class ChunkedUploadRequest {
+
+    @NotBlank(message = "Filename is required")
+    @Size(max = 255, message = "Filename must not exceed 255 characters")
+    private String filename;
+
+    @Positive(message = "Total size must be positive")
+    private long totalSize;
+
+    @Size(max = 255, message = "Title must not exceed 255 characters")
+    private String title;
+
+    @Size(max = 100, message = "Product code must not exceed 100 characters")
+    private String productCode;
+
+    @Size(max = 100, message = "Edition must not exceed 100 characters")
+    private String edition;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate publicationDate;
+
+    @Size(max = 4000, message = "Notes must not exceed 4000 characters")
+    private String notes;
+
+    private String createdBy;
+}
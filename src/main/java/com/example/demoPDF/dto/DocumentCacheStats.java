@@ -0,0 +1,23 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Document lookup cache counters since startup, for sizing app.cache.documents.*
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentCacheStats {
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long loadCount;
+    private double averageLoadMillis;
+    private long evictionCount;
+    private long size;
+    private long maxSize;
+    private long activeDocumentCount;
+}
@@ -0,0 +1,24 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Everything needed to serve a document's bytes over HTTP: the resolved file, its
+ * current size and modification time, and the validator used for ETag/If-Range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentContent {
+    private Path path;
+    private String filename;
+    private String contentType;
+    private long fileSize;
+    private Instant lastModified;
+    private String etag;
+}
@@ -0,0 +1,23 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Active document counts per product code, edition and publication year, largest first.
+ * total honours every filter; each facet honours the filters on the other two, so the
+ * alternatives to a selected value stay visible. Documents without a value are counted in
+ * total only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentFacets {
+    private long total;
+    private Map<String, Long> productCodes;
+    private Map<String, Long> editions;
+    private Map<Integer, Long> publicationYears;
+}
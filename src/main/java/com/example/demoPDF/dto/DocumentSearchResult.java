@@ -0,0 +1,24 @@
+package com.example.demoPDF.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A ranked search result. The document's fields are serialized inline, so clients that
+ * render plain document lists can show search results unchanged.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchResult {
+
+    @JsonUnwrapped
+    private PdfDocumentDto document;
+
+    private float score;
+    private List<PageHit> pageHits;
+}
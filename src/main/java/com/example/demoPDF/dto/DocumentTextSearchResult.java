@@ -0,0 +1,21 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Pages of one document that contain every term of the query, in page order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentTextSearchResult {
+    private Long documentId;
+    private String query;
+    private int totalHits;
+    private List<PageMatch> pages;
+    private long elapsedMillis;
+}
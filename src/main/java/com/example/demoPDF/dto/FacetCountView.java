@@ -0,0 +1,15 @@
+package com.example.demoPDF.dto;
+
+/**
+ * One row of the facet seed query: active documents per (product code, edition,
+ * publication year) combination
+ */
+public interface FacetCountView {
+    String getProductCode();
+
+    String getEdition();
+
+    Integer getPublicationYear();
+
+    Long getDocumentCount();
+}
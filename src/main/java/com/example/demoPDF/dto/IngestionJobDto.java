@@ -0,0 +1,29 @@
+package com.example.demoPDF.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionJobDto {
+    private String jobId;
+    private String filename;
+    // From the trailer scan at submit time, before the job is inspected
+    private Integer pageCount;
+    private String pdfVersion;
+    private IngestionStatus status;
+    private int progress;
+    private Long documentId;
+    private String error;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime submittedAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,23 @@
+package com.example.demoPDF.dto;
+
+/**
+ * Stages an ingested upload moves through, in order
+ */
+public enum IngestionStatus {
+    QUEUED(0),
+    STORING(20),
+    INSPECTING(60),
+    SAVING(80),
+    COMPLETED(100),
+    FAILED(100);
+
+    private final int progress;
+
+    IngestionStatus(int progress) {
+        this.progress = progress;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A page that matched a search, with a highlighted excerpt (matches wrapped in mark tags,
+ * the rest HTML-escaped)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageHit {
+    private int pageNumber;
+    private float score;
+    private String snippet;
+}
@@ -0,0 +1,21 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Matches on one page of a document: how many, where ([start, end) character offsets into
+ * the page's extracted text) and a highlighted excerpt
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageMatch {
+    private int pageNumber;
+    private int hitCount;
+    private List<int[]> positions;
+    private String snippet;
+}
@@ -0,0 +1,16 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rendered PNG of one page and the validator that identifies it (content hash, page, DPI)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageThumbnail {
+    private byte[] image;
+    private String etag;
+}
@@ -1,5 +1,6 @@
 package com.example.demoPDF.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -11,7 +12,12 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(PdfDocumentDto.FIELD_FILTER)
 public class PdfDocumentDto {
+
+    // Property filter that lets a response carry only the fields the client asked for
+    public static final String FIELD_FILTER = "pdfDocumentFields";
+
     private Long id;
     private String title;
     private String filename;
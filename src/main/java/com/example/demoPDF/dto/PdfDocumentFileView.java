@@ -0,0 +1,13 @@
+package com.example.demoPDF.dto;
+
+/**
+ * Projection of just the columns needed to locate a document's file, so bulk reads
+ * do not load notes or metadata
+ */
+public interface PdfDocumentFileView {
+    Long getId();
+
+    String getFilename();
+
+    String getFilePath();
+}
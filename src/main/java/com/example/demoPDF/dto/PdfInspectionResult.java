@@ -0,0 +1,23 @@
+package com.example.demoPDF.dto;
+
+import com.example.demoPDF.entity.PdfInfo;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything gathered from one parse of a PDF
+ */
+@Data
+@NoArgsConstructor
+public class PdfInspectionResult {
+    private boolean valid;
+    private int pageCount;
+    private PdfInfo info;
+
+    // One entry per page (index 0 is page 1), empty when text extraction was not requested
+    private List<String> pageTexts = List.of();
+
+    private String error;
+}
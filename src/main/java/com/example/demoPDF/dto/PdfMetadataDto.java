@@ -0,0 +1,25 @@
+package com.example.demoPDF.dto;
+
+import com.example.demoPDF.entity.PdfInfo;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stored inspection results for a document, served without reopening the PDF
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfMetadataDto {
+    private Long documentId;
+    private Integer pageCount;
+    private Long fileSize;
+    private String contentHash;
+
+    @JsonUnwrapped
+    private PdfInfo info;
+
+    private long textPageCount;
+}
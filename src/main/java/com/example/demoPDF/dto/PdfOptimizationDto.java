@@ -0,0 +1,29 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-document report of the optimize stage: bytes saved overall and in what a viewer has
+ * to download before it can render page 1 (only linearization brings that below the file size)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfOptimizationDto {
+    private Long documentId;
+    private String tool;
+    private boolean linearized;
+    private boolean served;
+    private long originalSize;
+    private long optimizedSize;
+    private long bytesSaved;
+    private double percentSaved;
+    private Long originalFirstPageBytes;
+    private Long optimizedFirstPageBytes;
+    private Long firstPageBytesSaved;
+    private LocalDateTime createdDate;
+}
@@ -0,0 +1,20 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response bodies written by one message converter (json, cbor or smile) since startup
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerializationStats {
+    private String format;
+    private long responses;
+    private long totalBytes;
+    private long averageBytes;
+    private double totalMillis;
+    private double averageMillis;
+}
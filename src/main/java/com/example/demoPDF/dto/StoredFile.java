@@ -0,0 +1,18 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of writing an upload to storage: where it landed, how many bytes were
+ * written and the SHA-256 of those bytes, all gathered in the same pass.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFile {
+    private String filePath;
+    private long fileSize;
+    private String contentHash;
+}
@@ -0,0 +1,22 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Size of the type-ahead index. Byte figures are estimates from object layouts (64-bit JVM,
+ * compressed references, compact strings), covering the tries, the distinct values and the per-document
+ * bookkeeping used for incremental updates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestIndexStats {
+    private long entries;
+    private long trieNodes;
+    private long documents;
+    private long estimatedBytes;
+    private long estimatedBytesPer100kEntries;
+    private long buildMillis;
+}
@@ -0,0 +1,24 @@
+package com.example.demoPDF.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A type-ahead completion: a title, product code or edition as stored, with the number of
+ * active documents that have it and when the newest of them was uploaded
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+    private String text;
+    private String field;
+    private long documentCount;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime lastUploaded;
+}
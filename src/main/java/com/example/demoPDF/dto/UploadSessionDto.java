@@ -0,0 +1,25 @@
+package com.example.demoPDF.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDto {
+    private String sessionId;
+    private String filename;
+    private long totalSize;
+    private long receivedOffset;
+    private int chunksReceived;
+    // From the trailer scan once every byte has arrived, null until then
+    private Integer pageCount;
+    private String pdfVersion;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime expiresAt;
+}
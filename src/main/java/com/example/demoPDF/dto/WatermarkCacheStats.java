@@ -0,0 +1,21 @@
+package com.example.demoPDF.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters for the watermarked rendition cache since startup, plus its current size
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatermarkCacheStats {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int entries;
+    private long sizeBytes;
+    private long maxBytes;
+    private int inFlight;
+}
@@ -0,0 +1,37 @@
+package com.example.demoPDF.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored copy of a file's bytes, shared by every document with the same content hash.
+ */
+@Entity
+@Table(name = "pdf_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "storage_path", nullable = false, length = 500)
+    private String storagePath;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_date", nullable = false)
+    @CreationTimestamp
+    private LocalDateTime createdDate;
+}
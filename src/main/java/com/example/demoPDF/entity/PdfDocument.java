@@ -11,14 +11,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+// Indexes are managed by the Flyway migrations in db/migration
 @Table(name = "pdf_documents")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PdfDocument {
 
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts (see bulk upload).
+    // Migration V3 converts the original IDENTITY column and starts the sequence above MAX(id).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pdf_documents_seq")
+    @SequenceGenerator(name = "pdf_documents_seq", sequenceName = "pdf_documents_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "title", nullable = false, length = 255)
@@ -33,9 +37,15 @@ public class PdfDocument {
     @Column(name = "file_size")
     private Long fileSize;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "page_count")
     private Integer pageCount;
 
+    @Embedded
+    private PdfInfo pdfInfo;
+
     @Column(name = "product_code", length = 100)
     private String productCode;
 
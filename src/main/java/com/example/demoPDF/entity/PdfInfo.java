@@ -0,0 +1,50 @@
+package com.example.demoPDF.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the PDF says about itself (header version, encryption, info dictionary), captured
+ * once at ingest and stored in the pdf_documents row.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfInfo {
+
+    @Column(name = "pdf_version")
+    private Float version;
+
+    @Column(name = "is_encrypted")
+    private Boolean encrypted;
+
+    @Column(name = "pdf_title", length = 500)
+    private String title;
+
+    @Column(name = "pdf_author", length = 255)
+    private String author;
+
+    @Column(name = "pdf_subject", length = 500)
+    private String subject;
+
+    @Column(name = "pdf_keywords", length = 500)
+    private String keywords;
+
+    @Column(name = "pdf_creator", length = 255)
+    private String creator;
+
+    @Column(name = "pdf_producer", length = 255)
+    private String producer;
+
+    @Column(name = "pdf_creation_date")
+    private LocalDateTime creationDate;
+
+    @Column(name = "pdf_modification_date")
+    private LocalDateTime modificationDate;
+}
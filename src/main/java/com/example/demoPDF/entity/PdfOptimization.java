@@ -0,0 +1,56 @@
+package com.example.demoPDF.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of the optimize stage for one document. The original file stays where it is;
+ * filePath points at the optimized copy, or is null when the rewrite was not worth keeping.
+ */
+@Entity
+@Table(name = "pdf_optimizations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfOptimization {
+
+    @Id
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @Column(name = "file_path", length = 500)
+    private String filePath;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "original_size", nullable = false)
+    private Long originalSize;
+
+    @Column(name = "optimized_size", nullable = false)
+    private Long optimizedSize;
+
+    @Column(name = "linearized", nullable = false)
+    private Boolean linearized;
+
+    @Column(name = "tool", length = 20)
+    private String tool;
+
+    @Column(name = "original_first_page_bytes")
+    private Long originalFirstPageBytes;
+
+    @Column(name = "optimized_first_page_bytes")
+    private Long optimizedFirstPageBytes;
+
+    @Column(name = "created_date", nullable = false)
+    @CreationTimestamp
+    private LocalDateTime createdDate;
+}
@@ -0,0 +1,31 @@
+package com.example.demoPDF.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Extracted text of one page, kept so searches never have to reopen the PDF
+ */
+@Entity
+@Table(name = "pdf_page_texts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfPageText {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pdf_page_texts_seq")
+    @SequenceGenerator(name = "pdf_page_texts_seq", sequenceName = "pdf_page_texts_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(name = "page_number", nullable = false)
+    private Integer pageNumber;
+
+    @Column(name = "text", columnDefinition = "NVARCHAR(MAX)")
+    private String text;
+}
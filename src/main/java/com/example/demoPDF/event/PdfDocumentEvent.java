@@ -0,0 +1,25 @@
+package com.example.demoPDF.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published inside the transaction that changes a document. Listeners that do work
+ * outside the database (optimization, indexes, caches) should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class PdfDocumentEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long documentId;
+}
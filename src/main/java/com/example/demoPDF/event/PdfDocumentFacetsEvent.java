@@ -0,0 +1,36 @@
+package com.example.demoPDF.event;
+
+import com.example.demoPDF.entity.PdfDocument;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published alongside PdfDocumentEvent when an active document's facet values appear,
+ * change or go away: before is null for a new document and after is null for a deleted
+ * one. Carrying both sides lets facet counters be adjusted without re-reading the row.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class PdfDocumentFacetsEvent {
+
+    private final Values before;
+    private final Values after;
+
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @ToString
+    public static class Values {
+        private final String productCode;
+        private final String edition;
+        private final Integer publicationYear;
+
+        public static Values of(PdfDocument document) {
+            return new Values(document.getProductCode(), document.getEdition(),
+                    document.getPublicationDate() != null ? document.getPublicationDate().getYear() : null);
+        }
+    }
+}
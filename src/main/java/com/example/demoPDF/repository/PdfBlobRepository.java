@@ -0,0 +1,35 @@
+package com.example.demoPDF.repository;
+
+import com.example.demoPDF.entity.PdfBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PdfBlobRepository extends JpaRepository<PdfBlob, String> {
+
+    Optional<PdfBlob> findByStoragePath(String storagePath);
+
+    // Reference counts are adjusted in the database rather than read-modify-write on the entity
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PdfBlob b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :contentHash")
+    int incrementRefCount(@Param("contentHash") String contentHash);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PdfBlob b SET b.refCount = b.refCount - 1 WHERE b.contentHash = :contentHash")
+    int decrementRefCount(@Param("contentHash") String contentHash);
+
+    // Hashes of blobs nothing refers to any more, for the sweeper
+    @Query("SELECT b.contentHash FROM PdfBlob b WHERE b.refCount <= 0")
+    List<String> findUnreferencedHashes();
+
+    // Deletes the row only if it is still unreferenced; the row lock holds off a concurrent reuse until commit
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM PdfBlob b WHERE b.contentHash = :contentHash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("contentHash") String contentHash);
+}
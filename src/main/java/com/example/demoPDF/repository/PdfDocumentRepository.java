@@ -1,16 +1,26 @@
 package com.example.demoPDF.repository;
 
+import com.example.demoPDF.dto.FacetCountView;
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.PdfDocumentFileView;
+import com.example.demoPDF.dto.PdfDocumentSummaryDto;
 import com.example.demoPDF.entity.PdfDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PdfDocumentRepository extends JpaRepository<PdfDocument, Long> {
+public interface PdfDocumentRepository extends JpaRepository<PdfDocument, Long>, PdfDocumentRepositoryCustom {
 
     // Find all active documents
     List<PdfDocument> findByIsActiveTrueOrderByUploadDateDesc();
@@ -18,22 +28,75 @@ public interface PdfDocumentRepository extends JpaRepository<PdfDocument, Long>
     // Find active document by ID
     Optional<PdfDocument> findByIdAndIsActiveTrue(Long id);
 
-    // Search documents by various fields
-    @Query("SELECT p FROM PdfDocument p WHERE p.isActive = true AND " +
-            "(LOWER(p.title) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
-            "LOWER(p.filename) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
-            "LOWER(p.productCode) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
-            "LOWER(p.edition) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
-            "LOWER(p.notes) LIKE LOWER(CONCAT('%', :searchQuery, '%'))) " +
-            "ORDER BY p.uploadDate DESC")
-    List<PdfDocument> searchDocuments(@Param("searchQuery") String searchQuery);
-
     // Find by product code
     List<PdfDocument> findByProductCodeAndIsActiveTrueOrderByUploadDateDesc(String productCode);
 
     // Find by edition
     List<PdfDocument> findByEditionAndIsActiveTrueOrderByUploadDateDesc(String edition);
 
+    // Keyset listing, newest first; the (uploadDate, id) of the last row seen is the cursor
+    String SUMMARY_SELECT = "SELECT new com.example.demoPDF.dto.PdfDocumentSummaryDto(" +
+            "p.id, p.title, p.filename, p.fileSize, p.pageCount, p.productCode, p.edition, " +
+            "p.publicationDate, p.contentType, p.uploadDate, p.createdBy, p.updatedDate) FROM PdfDocument p ";
+
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true ORDER BY p.uploadDate DESC, p.id DESC")
+    List<PdfDocumentSummaryDto> findSummaryPage(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND (p.uploadDate < :uploadDate " +
+            "OR (p.uploadDate = :uploadDate AND p.id < :id)) ORDER BY p.uploadDate DESC, p.id DESC")
+    List<PdfDocumentSummaryDto> findSummaryPageAfter(@Param("uploadDate") LocalDateTime uploadDate,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND p.id = :id")
+    Optional<PdfDocumentSummaryDto> findActiveSummary(@Param("id") Long id);
+
+    // Summaries in id order after afterId, for loading the catalogue substring index in batches
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND p.id > :afterId ORDER BY p.id")
+    List<PdfDocumentSummaryDto> findSummaryBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Substring match on the catalogue fields; the fallback while the in-memory index is loading
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND " +
+            "(LOWER(p.title) LIKE CONCAT('%', :needle, '%') OR " +
+            "LOWER(p.filename) LIKE CONCAT('%', :needle, '%') OR " +
+            "LOWER(p.productCode) LIKE CONCAT('%', :needle, '%') OR " +
+            "LOWER(p.edition) LIKE CONCAT('%', :needle, '%')) " +
+            "ORDER BY p.uploadDate DESC, p.id DESC")
+    List<PdfDocumentSummaryDto> searchCatalogue(@Param("needle") String needle, Pageable pageable);
+
+    // Every active document as DTOs, read through a cursor; DTOs are not managed, so the persistence context stays empty
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demoPDF.dto.PdfDocumentDto(p.id, p.title, p.filename, p.fileSize, p.pageCount, " +
+            "p.productCode, p.edition, p.publicationDate, p.notes, p.contentType, p.uploadDate, p.createdBy, " +
+            "p.updatedDate) FROM PdfDocument p WHERE p.isActive = true ORDER BY p.uploadDate DESC, p.id DESC")
+    Stream<PdfDocumentDto> streamActiveDocuments();
+
+    // Export batches: documents for a product code (and optionally edition) after a given id
+    @Query("SELECT p.id AS id, p.filename AS filename, p.filePath AS filePath FROM PdfDocument p " +
+            "WHERE p.isActive = true AND p.productCode = :productCode " +
+            "AND (:edition IS NULL OR p.edition = :edition) AND p.id > :afterId ORDER BY p.id")
+    List<PdfDocumentFileView> findExportBatch(@Param("productCode") String productCode,
+                                              @Param("edition") String edition,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM PdfDocument p WHERE p.isActive = true AND p.productCode = :productCode " +
+            "AND (:edition IS NULL OR p.edition = :edition)")
+    long countForExport(@Param("productCode") String productCode, @Param("edition") String edition);
+
+    // Ids of active documents after afterId, for walking the table in batches
+    @Query("SELECT p.id FROM PdfDocument p WHERE p.isActive = true AND p.id > :afterId ORDER BY p.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Active documents per (product code, edition, publication year), to seed the facet counters
+    @Query("SELECT p.productCode AS productCode, p.edition AS edition, YEAR(p.publicationDate) AS publicationYear, " +
+            "COUNT(p) AS documentCount FROM PdfDocument p WHERE p.isActive = true " +
+            "GROUP BY p.productCode, p.edition, YEAR(p.publicationDate)")
+    List<FacetCountView> countActiveByFacets();
+
     // Count total active documents
     long countByIsActiveTrue();
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.demoPDF.repository;
+
+import com.example.demoPDF.dto.PdfDocumentDto;
+
+import java.util.List;
+
+/**
+ * Queries whose select list is only known at runtime
+ */
+public interface PdfDocumentRepositoryCustom {
+
+    // PdfDocumentDto properties a caller may select, in response order
+    List<String> DOCUMENT_FIELDS = List.of("id", "title", "filename", "fileSize", "pageCount", "productCode",
+            "edition", "publicationDate", "notes", "contentType", "uploadDate", "createdBy", "updatedDate");
+
+    /**
+     * Active documents newest first, reading only the given columns (names from
+     * DOCUMENT_FIELDS); the other DTO properties are left null
+     */
+    List<PdfDocumentDto> findActiveDocumentFields(List<String> fields);
+}
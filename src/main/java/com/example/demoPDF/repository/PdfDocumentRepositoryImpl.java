@@ -0,0 +1,73 @@
+package com.example.demoPDF.repository;
+
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.entity.PdfDocument;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static java.util.Map.entry;
+
+/**
+ * Spring Data picks this up as the implementation of PdfDocumentRepositoryCustom
+ */
+public class PdfDocumentRepositoryImpl implements PdfDocumentRepositoryCustom {
+
+    private static final Map<String, BiConsumer<PdfDocumentDto, Object>> SETTERS = Map.ofEntries(
+            entry("id", (dto, value) -> dto.setId((Long) value)),
+            entry("title", (dto, value) -> dto.setTitle((String) value)),
+            entry("filename", (dto, value) -> dto.setFilename((String) value)),
+            entry("fileSize", (dto, value) -> dto.setFileSize((Long) value)),
+            entry("pageCount", (dto, value) -> dto.setPageCount((Integer) value)),
+            entry("productCode", (dto, value) -> dto.setProductCode((String) value)),
+            entry("edition", (dto, value) -> dto.setEdition((String) value)),
+            entry("publicationDate", (dto, value) -> dto.setPublicationDate((LocalDate) value)),
+            entry("notes", (dto, value) -> dto.setNotes((String) value)),
+            entry("contentType", (dto, value) -> dto.setContentType((String) value)),
+            entry("uploadDate", (dto, value) -> dto.setUploadDate((LocalDateTime) value)),
+            entry("createdBy", (dto, value) -> dto.setCreatedBy((String) value)),
+            entry("updatedDate", (dto, value) -> dto.setUpdatedDate((LocalDateTime) value)));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PdfDocumentDto> findActiveDocumentFields(List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<PdfDocument> p = query.from(PdfDocument.class);
+
+        List<Selection<?>> columns = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            if (!SETTERS.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown document field: " + field);
+            }
+            columns.add(p.get(field).alias(field));
+        }
+        query.multiselect(columns)
+                .where(cb.isTrue(p.get("isActive")))
+                .orderBy(cb.desc(p.get("uploadDate")), cb.desc(p.get("id")));
+
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        List<PdfDocumentDto> documents = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            PdfDocumentDto dto = new PdfDocumentDto();
+            for (String field : fields) {
+                SETTERS.get(field).accept(dto, row.get(field));
+            }
+            documents.add(dto);
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demoPDF.repository;
+
+import com.example.demoPDF.entity.PdfOptimization;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PdfOptimizationRepository extends JpaRepository<PdfOptimization, Long> {
+}
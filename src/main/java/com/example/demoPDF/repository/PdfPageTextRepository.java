@@ -0,0 +1,22 @@
+package com.example.demoPDF.repository;
+
+import com.example.demoPDF.entity.PdfPageText;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PdfPageTextRepository extends JpaRepository<PdfPageText, Long> {
+
+    List<PdfPageText> findByDocumentIdOrderByPageNumber(Long documentId);
+
+    long countByDocumentId(Long documentId);
+
+    @Modifying
+    @Query("DELETE FROM PdfPageText t WHERE t.documentId = :documentId")
+    int deleteByDocumentId(@Param("documentId") Long documentId);
+}
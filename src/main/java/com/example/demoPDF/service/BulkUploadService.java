@@ -0,0 +1,21 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.BulkUploadResponse;
+import com.example.demoPDF.dto.PdfUploadRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface BulkUploadService {
+
+    /**
+     * Ingest many multipart files; the request supplies metadata shared by all of them
+     */
+    BulkUploadResponse uploadFiles(List<MultipartFile> files, PdfUploadRequest defaults);
+
+    /**
+     * Ingest every PDF entry of a ZIP archive, reading the archive as a stream
+     */
+    BulkUploadResponse uploadArchive(InputStream archive, PdfUploadRequest defaults);
+}
@@ -0,0 +1,322 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.PdfDocumentSummaryDto;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory substring index over the catalogue fields (title, filename, product code,
+ * edition) of active documents, for lookups as the user types. Every three-character
+ * window of the lower-cased fields maps to a sorted int array of document ids; a query is
+ * answered by intersecting the arrays of its trigrams, smallest first, and confirming each
+ * candidate with a plain contains check. Queries shorter than three characters scan the
+ * entries instead. The index is built from a summary projection once the application is
+ * ready and follows PdfDocumentEvents afterwards; until the build finishes, queries go to
+ * the database.
+ */
+@Service
+@Slf4j
+public class CatalogueSubstringIndex {
+
+    private static final Comparator<PdfDocumentSummaryDto> NEWEST_FIRST = Comparator
+            .comparing(PdfDocumentSummaryDto::getUploadDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(PdfDocumentSummaryDto::getId, Comparator.reverseOrder());
+
+    private final PdfDocumentRepository repository;
+    private final int buildBatchSize;
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ids changed while the initial build was running; reloaded once it is done
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    public CatalogueSubstringIndex(
+            PdfDocumentRepository repository,
+            @Value("${app.lookup.build-batch-size:1000}") int buildBatchSize) {
+        this.repository = repository;
+        this.buildBatchSize = buildBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        building = true;
+        long afterId = 0;
+        List<PdfDocumentSummaryDto> batch;
+        do {
+            batch = repository.findSummaryBatchAfter(afterId, PageRequest.of(0, buildBatchSize));
+            lock.writeLock().lock();
+            try {
+                for (PdfDocumentSummaryDto summary : batch) {
+                    put(summary);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == buildBatchSize);
+
+        ready = true;
+        building = false;
+        for (Long id : changedDuringBuild) {
+            refresh(id);
+        }
+        changedDuringBuild.clear();
+
+        lock.readLock().lock();
+        try {
+            log.info("Catalogue substring index built: {} documents, {} trigrams in {} ms", entries.size(),
+                    postings.size(), System.currentTimeMillis() - started);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEvent(PdfDocumentEvent event) {
+        if (building) {
+            changedDuringBuild.add(event.getDocumentId());
+        }
+        if (ready) {
+            refresh(event.getDocumentId());
+        }
+    }
+
+    /**
+     * Active documents with query as a case-insensitive substring of one of the catalogue
+     * fields, newest first
+     */
+    public List<PdfDocumentSummaryDto> search(String query, int limit) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        if (!ready) {
+            return repository.searchCatalogue(needle, PageRequest.of(0, limit));
+        }
+
+        List<PdfDocumentSummaryDto> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                for (Entry entry : entries.values()) {
+                    if (entry.contains(needle)) {
+                        matches.add(entry.summary);
+                    }
+                }
+            } else {
+                int[] candidates = candidates(needle);
+                for (int id : candidates) {
+                    Entry entry = entries.get(id);
+                    if (entry != null && entry.contains(needle)) {
+                        matches.add(entry.summary);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(NEWEST_FIRST);
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    // Ids that contain every trigram of needle; a superset of the real matches
+    private int[] candidates(String needle) {
+        long[] grams = trigrams(needle);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            size = lists[i].retainAll(result, size);
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void refresh(Long id) {
+        PdfDocumentSummaryDto summary = repository.findActiveSummary(id).orElse(null);
+        lock.writeLock().lock();
+        try {
+            if (summary != null) {
+                put(summary);
+            } else {
+                remove(Math.toIntExact(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+    private void put(PdfDocumentSummaryDto summary) {
+        int id = Math.toIntExact(summary.getId());
+        remove(id);
+        Entry entry = new Entry(summary);
+        entries.put(id, entry);
+        for (long gram : entry.trigrams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+    }
+
+    private void remove(int id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (long gram : previous.trigrams()) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // Distinct trigrams of text, each packed into a long as three UTF-16 units
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static final class Entry {
+        private final PdfDocumentSummaryDto summary;
+        private final String[] fields;
+
+        private Entry(PdfDocumentSummaryDto summary) {
+            this.summary = summary;
+            this.fields = new String[]{lower(summary.getTitle()), lower(summary.getFilename()),
+                    lower(summary.getProductCode()), lower(summary.getEdition())};
+        }
+
+        private boolean contains(String needle) {
+            for (String field : fields) {
+                if (field.contains(needle)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long[] trigrams() {
+            // The separator keeps trigrams from spanning two fields in a way a query could match
+            return CatalogueSubstringIndex.trigrams(String.join("\u0000", fields));
+        }
+
+        private static String lower(String value) {
+            return value != null ? value.toLowerCase(Locale.ROOT) : "";
+        }
+    }
+
+    /**
+     * Sorted document ids for one trigram. New documents get the highest id so adds are
+     * nearly always appends; updates and deletes shift the tail.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            if (size > 16 && size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            }
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+
+        /**
+         * Keep in candidates[0..count) only the ids also in this list and return the new
+         * count. Candidates are the smaller side, so each is found by galloping forward from
+         * the previous match instead of walking this list element by element.
+         */
+        private int retainAll(int[] candidates, int count) {
+            int kept = 0;
+            int low = 0;
+            for (int i = 0; i < count && low < size; i++) {
+                int target = candidates[i];
+                int step = 1;
+                int high = low;
+                while (high < size && ids[high] < target) {
+                    low = high + 1;
+                    high += step;
+                    step <<= 1;
+                }
+                int position = Arrays.binarySearch(ids, low, Math.min(high + 1, size), target);
+                if (position >= 0) {
+                    candidates[kept++] = target;
+                    low = position + 1;
+                } else {
+                    low = -position - 1;
+                }
+            }
+            return kept;
+        }
+    }
+}
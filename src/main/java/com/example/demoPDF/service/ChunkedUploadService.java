@@ -0,0 +1,20 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.ChunkedUploadRequest;
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.UploadSessionDto;
+
+import java.io.InputStream;
+
+public interface ChunkedUploadService {
+
+    UploadSessionDto createSession(ChunkedUploadRequest request);
+
+    UploadSessionDto writeChunk(String sessionId, int chunkNumber, long offset, InputStream content);
+
+    UploadSessionDto getSession(String sessionId);
+
+    PdfDocumentDto completeSession(String sessionId);
+
+    void abortSession(String sessionId);
+}
@@ -0,0 +1,25 @@
+package com.example.demoPDF.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface DocumentExportService {
+
+    /**
+     * Number of active documents an export with these filters would contain
+     */
+    long countDocuments(String productCode, String edition);
+
+    /**
+     * Write a ZIP of every active document for the product code (and edition, when given) to
+     * out, one entry at a time
+     */
+    void writeZip(String productCode, String edition, OutputStream out) throws IOException;
+
+    /**
+     * Write every active document to out as JSON, newest first: one object per line when
+     * ndjson is true, otherwise a single array. Rows are written as they are read, so memory
+     * use does not depend on the number of documents. Returns the number written.
+     */
+    long writeDocumentsJson(boolean ndjson, OutputStream out) throws IOException;
+}
@@ -0,0 +1,39 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Gives a deleted document's stored file back to the storage backend once the soft delete
+ * has committed. Releasing it inside the delete's transaction could drop the bytes (or a
+ * blob reference) of a document that a rollback then leaves active.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentFileReleaser {
+
+    private final PdfDocumentRepository repository;
+    private final FileStorageService fileStorageService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEvent(PdfDocumentEvent event) {
+        if (event.getType() != PdfDocumentEvent.Type.DELETED) {
+            return;
+        }
+        PdfDocument document = repository.findById(event.getDocumentId()).orElse(null);
+        if (document == null || Boolean.TRUE.equals(document.getIsActive())) {
+            return;
+        }
+        try {
+            fileStorageService.deleteFile(document.getFilePath());
+        } catch (Exception e) {
+            log.warn("Failed to delete file of document {} from storage: {}", event.getDocumentId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.DocumentFacets;
+
+public interface FacetService {
+
+    /**
+     * Facet counts, optionally drilled down by product code, edition and/or publication year
+     * (null for no filter); served from memory
+     */
+    DocumentFacets getFacets(String productCode, String edition, Integer publicationYear);
+
+    /**
+     * Replace the counters with a fresh count from the database
+     */
+    void resync();
+}
@@ -1,15 +1,30 @@
 package com.example.demoPDF.service;
 
+import com.example.demoPDF.dto.StoredFile;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
 public interface FileStorageService {
 
-    String storeFile(MultipartFile file);
+    StoredFile storeFile(InputStream content, String originalFilename);
+
+    default StoredFile storeFile(MultipartFile file) {
+        try (InputStream content = file.getInputStream()) {
+            return storeFile(content, file.getOriginalFilename());
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read upload " + file.getOriginalFilename(), ex);
+        }
+    }
 
     Resource loadFileAsResource(String filePath);
 
+    Path resolvePath(String filePath);
+
     void deleteFile(String filePath);
 
     void initStorage();
-}
\ No newline at end of file
+}
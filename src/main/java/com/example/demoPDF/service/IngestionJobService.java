@@ -0,0 +1,14 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.IngestionJobDto;
+import com.example.demoPDF.dto.PdfUploadRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+
+public interface IngestionJobService {
+
+    IngestionJobDto submit(MultipartFile file, PdfUploadRequest request);
+
+    Optional<IngestionJobDto> getJob(String jobId);
+}
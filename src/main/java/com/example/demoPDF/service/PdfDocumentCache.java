@@ -0,0 +1,87 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.DocumentCacheStats;
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of active documents by id, plus the active document count kept as a
+ * counter. Entries are dropped after the transaction that changed them commits (every
+ * create, update and delete publishes a PdfDocumentEvent) and expire after a TTL as a bound
+ * on staleness across instances. Cached entities are shared between requests and must be
+ * treated as read-only; code that modifies a document loads it from the repository.
+ */
+@Service
+@Slf4j
+public class PdfDocumentCache {
+
+    private static final long COUNT_NOT_LOADED = -1;
+
+    private final PdfDocumentRepository repository;
+    private final LoadingCache<Long, Optional<PdfDocument>> documents;
+    private final long maxSize;
+    private final AtomicLong activeCount = new AtomicLong(COUNT_NOT_LOADED);
+
+    public PdfDocumentCache(
+            PdfDocumentRepository repository,
+            @Value("${app.cache.documents.max-size:10000}") long maxSize,
+            @Value("${app.cache.documents.ttl-seconds:600}") long ttlSeconds) {
+        this.repository = repository;
+        this.maxSize = maxSize;
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(repository::findByIdAndIsActiveTrue);
+    }
+
+    public Optional<PdfDocument> findActive(Long id) {
+        return documents.get(id);
+    }
+
+    public long activeCount() {
+        long count = activeCount.get();
+        return count != COUNT_NOT_LOADED ? count : resyncActiveCount();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEvent(PdfDocumentEvent event) {
+        documents.invalidate(event.getDocumentId());
+        if (event.getType() == PdfDocumentEvent.Type.CREATED) {
+            activeCount.updateAndGet(count -> count != COUNT_NOT_LOADED ? count + 1 : count);
+        } else if (event.getType() == PdfDocumentEvent.Type.DELETED) {
+            activeCount.updateAndGet(count -> count != COUNT_NOT_LOADED ? Math.max(0, count - 1) : count);
+        }
+    }
+
+    // Corrects drift from changes made outside this instance (other nodes, manual SQL)
+    @Scheduled(fixedDelayString = "${app.cache.documents.count-resync-ms:600000}")
+    public long resyncActiveCount() {
+        long count = repository.countByIsActiveTrue();
+        long previous = activeCount.getAndSet(count);
+        if (previous != COUNT_NOT_LOADED && previous != count) {
+            log.info("Active document count corrected from {} to {}", previous, count);
+        }
+        return count;
+    }
+
+    public DocumentCacheStats getStats() {
+        CacheStats stats = documents.stats();
+        return new DocumentCacheStats(stats.hitCount(), stats.missCount(), stats.hitRate(), stats.loadCount(),
+                stats.averageLoadPenalty() / 1_000_000.0, stats.evictionCount(), documents.estimatedSize(),
+                maxSize, activeCount());
+    }
+}
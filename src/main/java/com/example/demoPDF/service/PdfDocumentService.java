@@ -1,23 +1,52 @@
 package com.example.demoPDF.service;
 
+import com.example.demoPDF.dto.CursorPage;
+import com.example.demoPDF.dto.DocumentContent;
+import com.example.demoPDF.dto.IngestionStatus;
 import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.PdfDocumentSummaryDto;
+import com.example.demoPDF.dto.PdfMetadataDto;
 import com.example.demoPDF.dto.PdfUploadRequest;
 //import com.example.demoPDF.entity.PdfDocument;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface PdfDocumentService {
 
     PdfDocumentDto uploadDocument(MultipartFile file, PdfUploadRequest request);
 
+    PdfDocumentDto uploadDocument(Path stagedFile, String originalFilename, PdfUploadRequest request);
+
+    PdfDocumentDto uploadDocument(Path stagedFile, String originalFilename, PdfUploadRequest request,
+                                  Consumer<IngestionStatus> progress);
+
     List<PdfDocumentDto> getAllDocuments();
 
+    /**
+     * Active documents with only the named PdfDocumentDto properties loaded; the selection is
+     * pushed down into the query. An empty set means every property.
+     */
+    List<PdfDocumentDto> getAllDocuments(Set<String> fields);
+
+    /**
+     * Active documents newest first, one page at a time; pass the previous page's nextCursor
+     * (or null for the first page). size is capped at app.pdf.list.max-page-size.
+     */
+    CursorPage<PdfDocumentSummaryDto> getDocumentPage(String cursor, Integer size);
+
     Optional<PdfDocumentDto> getDocumentById(Long id);
 
-    List<PdfDocumentDto> searchDocuments(String searchQuery);
+    /**
+     * Search-as-you-type over title, filename, product code and edition: list rows straight
+     * from the in-memory catalogue index, at most limit of them (capped like getDocumentPage)
+     */
+    List<PdfDocumentSummaryDto> lookupDocuments(String query, Integer limit);
 
     PdfDocumentDto updateDocument(Long id, PdfUploadRequest request);
 
@@ -27,5 +56,12 @@ public interface PdfDocumentService {
 
     Resource downloadDocument(Long id);
 
+    /**
+     * Bytes to serve for a document: the optimized copy when one exists, unless original is set
+     */
+    Optional<DocumentContent> getDocumentContent(Long id, boolean original);
+
+    Optional<PdfMetadataDto> getDocumentMetadata(Long id);
+
     long getDocumentCount();
 }
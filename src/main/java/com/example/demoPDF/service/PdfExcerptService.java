@@ -0,0 +1,12 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.DocumentContent;
+
+public interface PdfExcerptService {
+
+    /**
+     * A PDF holding pages fromPage..toPage (1-based, inclusive) of the document, built on the
+     * first request and served from the disk cache afterwards
+     */
+    DocumentContent getExcerpt(Long documentId, int fromPage, int toPage);
+}
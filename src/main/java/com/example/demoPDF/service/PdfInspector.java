@@ -0,0 +1,193 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.PdfInspectionResult;
+import com.example.demoPDF.entity.PdfInfo;
+import com.example.demoPDF.util.PdfQuickScanner;
+import com.example.demoPDF.util.PdfUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Opens a stored PDF once and collects everything the application keeps about it:
+ * page count, header version, encryption, the info dictionary and, optionally, the
+ * text of each page. Replaces calling the separate PdfUtils helpers, each of which
+ * parsed the whole file again.
+ */
+@Service
+@Slf4j
+public class PdfInspector {
+
+    private final long scratchMemoryBytes;
+    private final boolean extractText;
+    private final int maxTextPages;
+    private final Executor textExtractionExecutor;
+    private final int textWorkers;
+    private final int parallelMinPages;
+
+    public PdfInspector(
+            @Value("${app.pdf.scratch-memory-bytes:" + PdfUtils.DEFAULT_SCRATCH_MEMORY_BYTES + "}") long scratchMemoryBytes,
+            @Value("${app.pdf.text.extract:true}") boolean extractText,
+            @Value("${app.pdf.text.max-pages:2000}") int maxTextPages,
+            @Qualifier("textExtractionExecutor") Executor textExtractionExecutor,
+            @Value("${app.pdf.text.workers:4}") int textWorkers,
+            @Value("${app.pdf.text.parallel-min-pages:100}") int parallelMinPages) {
+        this.scratchMemoryBytes = scratchMemoryBytes;
+        this.extractText = extractText;
+        this.maxTextPages = maxTextPages;
+        this.textExtractionExecutor = textExtractionExecutor;
+        this.textWorkers = textWorkers;
+        this.parallelMinPages = parallelMinPages;
+    }
+
+    public PdfInspectionResult inspect(Path file) {
+        return inspect(file, extractText);
+    }
+
+    public PdfInspectionResult inspect(Path file, boolean withText) {
+        PdfInspectionResult result = new PdfInspectionResult();
+        PdfInfo info = new PdfInfo();
+        result.setInfo(info);
+
+        try (PDDocument document = PdfUtils.loadDocument(file, scratchMemoryBytes)) {
+            result.setPageCount(document.getNumberOfPages());
+            result.setValid(result.getPageCount() > 0);
+            info.setVersion(document.getVersion());
+            info.setEncrypted(document.isEncrypted());
+            readInformation(document.getDocumentInformation(), info);
+
+            if (withText) {
+                result.setPageTexts(extractPageTexts(document, file));
+            }
+
+            log.debug("Inspected {}: {} pages, version {}, encrypted {}, {} text pages", file,
+                    result.getPageCount(), info.getVersion(), info.getEncrypted(), result.getPageTexts().size());
+
+        } catch (InvalidPasswordException e) {
+            // Opening needs a user password: we know it is encrypted but cannot read anything else
+            info.setEncrypted(true);
+            result.setError("PDF is password protected");
+            log.warn("PDF {} is password protected", file);
+            readPageCountFromTrailer(file, result);
+        } catch (IOException e) {
+            result.setError(e.getMessage());
+            log.warn("Could not inspect PDF {}: {}", file, e.getMessage());
+            readPageCountFromTrailer(file, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Encryption only covers strings and streams, so the page tree count is usually still
+     * readable when PDFBox refuses the file
+     */
+    private void readPageCountFromTrailer(Path file, PdfInspectionResult result) {
+        PdfQuickScanner.ScanResult scan = PdfQuickScanner.scan(file, false);
+        if (scan.getPageCount() > 0) {
+            result.setPageCount(scan.getPageCount());
+            if (scan.getVersion() != null && scan.getVersion().matches("\\d\\.\\d")) {
+                result.getInfo().setVersion(Float.parseFloat(scan.getVersion()));
+            }
+        }
+    }
+
+    /**
+     * Text of each page, in order. Large documents are split into one page range per worker;
+     * this thread strips the first range from the already open document while the others
+     * open their own copies, since a PDDocument cannot be shared between threads.
+     */
+    private List<String> extractPageTexts(PDDocument document, Path file) {
+        int pages = Math.min(document.getNumberOfPages(), maxTextPages);
+        if (pages < parallelMinPages || textWorkers < 2) {
+            return extractRange(document, 1, pages);
+        }
+
+        int rangeSize = (pages + textWorkers - 1) / textWorkers;
+        List<CompletableFuture<List<String>>> laterRanges = new ArrayList<>();
+        for (int from = rangeSize + 1; from <= pages; from += rangeSize) {
+            int rangeStart = from;
+            int rangeEnd = Math.min(from + rangeSize - 1, pages);
+            laterRanges.add(CompletableFuture.supplyAsync(
+                    () -> extractRange(file, rangeStart, rangeEnd), textExtractionExecutor));
+        }
+
+        List<String> pageTexts = new ArrayList<>(pages);
+        pageTexts.addAll(extractRange(document, 1, rangeSize));
+        // Rows are numbered by position, so stop at the first range that came back short
+        boolean complete = pageTexts.size() == rangeSize;
+        for (int i = 0; i < laterRanges.size(); i++) {
+            List<String> range = laterRanges.get(i).join();
+            if (complete) {
+                pageTexts.addAll(range);
+                complete = range.size() == Math.min(rangeSize, pages - (i + 1) * rangeSize);
+            }
+        }
+        return pageTexts;
+    }
+
+    private List<String> extractRange(Path file, int fromPage, int toPage) {
+        try (PDDocument document = PdfUtils.loadDocument(file, scratchMemoryBytes)) {
+            return extractRange(document, fromPage, toPage);
+        } catch (IOException e) {
+            log.warn("Could not open {} for text extraction of pages {}-{}: {}", file, fromPage, toPage, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<String> extractRange(PDDocument document, int fromPage, int toPage) {
+        List<String> pageTexts = new ArrayList<>(toPage - fromPage + 1);
+        try {
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int page = fromPage; page <= toPage; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                pageTexts.add(stripper.getText(document));
+            }
+        } catch (IOException e) {
+            // Text is optional; keep the pages extracted so far
+            log.warn("Text extraction stopped at page {}: {}", fromPage + pageTexts.size(), e.getMessage());
+        }
+        return pageTexts;
+    }
+
+    private void readInformation(PDDocumentInformation docInfo, PdfInfo info) {
+        if (docInfo == null) {
+            return;
+        }
+        info.setTitle(truncate(docInfo.getTitle(), 500));
+        info.setAuthor(truncate(docInfo.getAuthor(), 255));
+        info.setSubject(truncate(docInfo.getSubject(), 500));
+        info.setKeywords(truncate(docInfo.getKeywords(), 500));
+        info.setCreator(truncate(docInfo.getCreator(), 255));
+        info.setProducer(truncate(docInfo.getProducer(), 255));
+        info.setCreationDate(toLocalDateTime(docInfo.getCreationDate()));
+        info.setModificationDate(toLocalDateTime(docInfo.getModificationDate()));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private static LocalDateTime toLocalDateTime(Calendar calendar) {
+        return calendar != null ? LocalDateTime.ofInstant(calendar.toInstant(), ZoneId.systemDefault()) : null;
+    }
+}
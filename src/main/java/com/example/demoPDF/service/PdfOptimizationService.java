@@ -0,0 +1,15 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.PdfOptimizationDto;
+
+import java.util.Optional;
+
+public interface PdfOptimizationService {
+
+    /**
+     * Rewrite the stored document now (compaction, plus linearization when qpdf is configured)
+     */
+    PdfOptimizationDto optimize(Long documentId);
+
+    Optional<PdfOptimizationDto> getOptimization(Long documentId);
+}
@@ -0,0 +1,32 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.DocumentSearchResult;
+import com.example.demoPDF.dto.DocumentTextSearchResult;
+
+import java.util.List;
+
+public interface SearchIndexService {
+
+    /**
+     * Active documents matching query across metadata and page text, best first, each with
+     * its best-matching pages
+     */
+    List<DocumentSearchResult> search(String query, int limit);
+
+    /**
+     * Pages of one document containing every term of query, with hit counts, offsets and
+     * snippets, answered from the indexed page text without opening the PDF
+     */
+    DocumentTextSearchResult searchWithinDocument(Long documentId, String query);
+
+    /**
+     * Re-read the document from the database and replace its entries (removes them when the
+     * document is gone or inactive)
+     */
+    void reindexDocument(Long documentId);
+
+    /**
+     * Rebuild the whole index from the database in the background
+     */
+    void rebuildIndex();
+}
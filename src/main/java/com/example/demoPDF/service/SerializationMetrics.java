@@ -0,0 +1,99 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.SerializationStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Payload size and write time per response format, recorded by the Jackson message
+ * converters. The time covers encoding plus handing bytes to the container; a slow client
+ * only shows up once the response outgrows the container's buffer.
+ */
+@Service
+public class SerializationMetrics {
+
+    @FunctionalInterface
+    public interface BodyWriter {
+        void write(HttpOutputMessage outputMessage) throws IOException;
+    }
+
+    private final Map<String, FormatCounters> formats = new ConcurrentHashMap<>();
+
+    public void record(String format, HttpOutputMessage outputMessage, BodyWriter writer) throws IOException {
+        CountingMessage counted = new CountingMessage(outputMessage);
+        long started = System.nanoTime();
+        try {
+            writer.write(counted);
+        } finally {
+            FormatCounters counters = formats.computeIfAbsent(format, key -> new FormatCounters());
+            counters.responses.increment();
+            counters.bytes.add(counted.bytes);
+            counters.nanos.add(System.nanoTime() - started);
+        }
+    }
+
+    public List<SerializationStats> getStats() {
+        List<SerializationStats> stats = new ArrayList<>();
+        formats.forEach((format, counters) -> {
+            long responses = counters.responses.sum();
+            long bytes = counters.bytes.sum();
+            double millis = counters.nanos.sum() / 1_000_000.0;
+            stats.add(new SerializationStats(format, responses, bytes, responses > 0 ? bytes / responses : 0,
+                    millis, responses > 0 ? millis / responses : 0));
+        });
+        stats.sort((a, b) -> a.getFormat().compareTo(b.getFormat()));
+        return stats;
+    }
+
+    private static final class FormatCounters {
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+
+    // Passes everything through to the real message, counting the body bytes on the way
+    private static final class CountingMessage implements HttpOutputMessage {
+        private final HttpOutputMessage delegate;
+        private OutputStream body;
+        private long bytes;
+
+        private CountingMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterOutputStream(delegate.getBody()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] buffer, int offset, int length) throws IOException {
+                        out.write(buffer, offset, length);
+                        bytes += length;
+                    }
+                };
+            }
+            return body;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.SuggestIndexStats;
+import com.example.demoPDF.dto.Suggestion;
+
+import java.util.List;
+
+public interface SuggestService {
+
+    /**
+     * Titles, product codes and editions starting with prefix (case-insensitive), best first.
+     * field limits the completions to one of title, productCode or edition (null for all);
+     * rank is "count" (most documents first) or "recent" (most recently uploaded first).
+     */
+    List<Suggestion> suggest(String prefix, String field, String rank, Integer limit);
+
+    SuggestIndexStats getStats();
+}
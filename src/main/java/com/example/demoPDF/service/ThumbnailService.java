@@ -0,0 +1,14 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.PageThumbnail;
+
+import java.util.Optional;
+
+public interface ThumbnailService {
+
+    /**
+     * Thumbnail of a page (1-based). Empty while it has not been rendered yet; a background
+     * render is queued in that case.
+     */
+    Optional<PageThumbnail> getThumbnail(Long documentId, int page);
+}
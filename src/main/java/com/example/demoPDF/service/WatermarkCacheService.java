@@ -0,0 +1,15 @@
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.dto.DocumentContent;
+import com.example.demoPDF.dto.WatermarkCacheStats;
+
+public interface WatermarkCacheService {
+
+    /**
+     * The document watermarked for recipient, rendered on the first request of the day and
+     * served from the disk cache afterwards
+     */
+    DocumentContent getWatermarked(Long documentId, String recipient);
+
+    WatermarkCacheStats getStats();
+}
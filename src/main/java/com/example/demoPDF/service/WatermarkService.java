@@ -1,135 +1,247 @@
-//package com.example.demoPDF.service;
-//
-//import org.apache.pdfbox.pdmodel.PDDocument;
-//import org.apache.pdfbox.pdmodel.PDPage;
-//import org.apache.pdfbox.pdmodel.PDPageContentStream;
-//import org.apache.pdfbox.pdmodel.font.PDType1Font;
-//import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
-//import org.apache.pdfbox.util.Matrix;
-//import org.springframework.stereotype.Service;
-//
-//import java.awt.*;
-//import java.io.ByteArrayInputStream;
-//import java.io.ByteArrayOutputStream;
-//import java.io.IOException;
-//import java.time.LocalDateTime;
-//import java.time.format.DateTimeFormatter;
-//
-//@Service
-//public class WatermarkService {
-//
-//    public byte[] addWatermarkToPdf(byte[] pdfData, String watermarkText) throws IOException {
-//        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(pdfData);
-//             PDDocument document = PDDocument.load(inputStream);
-//             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-//
-//            // Create watermark text with timestamp
-//            String fullWatermarkText = watermarkText + " - Downloaded: " +
-//                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-//
-//            // Add watermark to each page
-//            for (PDPage page : document.getPages()) {
-//                addWatermarkToPage(document, page, fullWatermarkText);
-//            }
-//
-//            document.save(outputStream);
-//            return outputStream.toByteArray();
-//        }
-//    }
-//
-//    private void addWatermarkToPage(PDDocument document, PDPage page, String watermarkText) throws IOException {
-//        PDPageContentStream contentStream = new PDPageContentStream(
-//                document, page, PDPageContentStream.AppendMode.APPEND, true, true);
-//
-//        try {
-//            // Set up graphics state for transparency
-//            PDExtendedGraphicsState graphicsState = new PDExtendedGraphicsState();
-//            graphicsState.setNonStrokingAlphaConstant(0.3f);
-//            contentStream.setGraphicsStateParameters(graphicsState);
-//
-//            // Get page dimensions
-//            float pageWidth = page.getMediaBox().getWidth();
-//            float pageHeight = page.getMediaBox().getHeight();
-//
-//            // Set font and color
-//            contentStream.setNonStrokingColor(Color.RED);
-//            contentStream.setFont(PDType1Font.HELVETICA_BOLD, 24);
-//
-//            // Calculate text width for centering
-//            float textWidth = PDType1Font.HELVETICA_BOLD.getStringWidth(watermarkText) / 1000 * 24;
-//
-//            // Position for diagonal watermark
-//            float x = (pageWidth - textWidth) / 2;
-//            float y = pageHeight / 2;
-//
-//            // Start text
-//            contentStream.beginText();
-//
-//            // Apply rotation and translation for diagonal text
-//            Matrix matrix = new Matrix();
-//            matrix.translate(x, y);
-//            matrix.rotate(Math.toRadians(-45)); // 45-degree rotation
-//            contentStream.setTextMatrix(matrix);
-//
-//            // Add the watermark text
-//            contentStream.showText(watermarkText);
-//            contentStream.endText();
-//
-//            // Add additional smaller watermarks in corners
-//            addCornerWatermarks(contentStream, pageWidth, pageHeight, "CONFIDENTIAL");
-//
-//        } finally {
-//            contentStream.close();
-//        }
-//    }
-//
-//    private void addCornerWatermarks(PDPageContentStream contentStream, float pageWidth,
-//                                     float pageHeight, String cornerText) throws IOException {
-//
-//        // Set smaller font for corner watermarks
-//        contentStream.setFont(PDType1Font.HELVETICA, 10);
-//        contentStream.setNonStrokingColor(Color.GRAY);
-//
-//        // Top-left corner
-//        contentStream.beginText();
-//        contentStream.newLineAtOffset(20, pageHeight - 30);
-//        contentStream.showText(cornerText);
-//        contentStream.endText();
-//
-//        // Top-right corner
-//        float cornerTextWidth = PDType1Font.HELVETICA.getStringWidth(cornerText) / 1000 * 10;
-//        contentStream.beginText();
-//        contentStream.newLineAtOffset(pageWidth - cornerTextWidth - 20, pageHeight - 30);
-//        contentStream.showText(cornerText);
-//        contentStream.endText();
-//
-//        // Bottom-left corner
-//        contentStream.beginText();
-//        contentStream.newLineAtOffset(20, 20);
-//        contentStream.showText(cornerText);
-//        contentStream.endText();
-//
-//        // Bottom-right corner
-//        contentStream.beginText();
-//        contentStream.newLineAtOffset(pageWidth - cornerTextWidth - 20, 20);
-//        contentStream.showText(cornerText);
-//        contentStream.endText();
-//
-//        // Center watermark (faint)
-//        PDExtendedGraphicsState faintState = new PDExtendedGraphicsState();
-//        faintState.setNonStrokingAlphaConstant(0.1f);
-//        contentStream.setGraphicsStateParameters(faintState);
-//
-//        contentStream.setFont(PDType1Font.HELVETICA_BOLD, 72);
-//        contentStream.setNonStrokingColor(Color.LIGHT_GRAY);
-//
-//        float centerTextWidth = PDType1Font.HELVETICA_BOLD.getStringWidth("DOWNLOAD COPY") / 1000 * 72;
-//        contentStream.beginText();
-//        Matrix centerMatrix = new Matrix();
-//        centerMatrix.translate((pageWidth - centerTextWidth) / 2, pageHeight / 2 - 100);
-//        centerMatrix.rotate(Math.toRadians(-45));
-//        contentStream.setTextMatrix(centerMatrix);
-//        contentStream.showText("DOWNLOAD COPY");
-//        contentStream.endText();
-//    }
-//}
\ No newline at end of file
+package com.example.demoPDF.service;
+
+import com.example.demoPDF.util.PdfUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.apache.pdfbox.util.Matrix;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stamps a watermark on every page of a stored PDF and streams the result.
+ * The watermark is drawn once into a Form XObject that all pages reference, and pages of the
+ * same size share one small content stream that places it. Output is an incremental save:
+ * the original bytes are copied through unchanged and only the touched page dictionaries and
+ * the new objects are appended, so the work per download grows with the page count rather
+ * than the file size and nothing is buffered in full on the heap.
+ */
+@Service
+@Slf4j
+public class WatermarkService {
+
+    // The watermark is laid out on a US Letter canvas and scaled onto each page
+    private static final float CANVAS_WIDTH = 612;
+    private static final float CANVAS_HEIGHT = 792;
+    private static final COSName WATERMARK_NAME = COSName.getPDFName("PdfUploadWatermark");
+    // Bump whenever the layout below changes so cached renditions are not reused
+    private static final int TEMPLATE_VERSION = 1;
+
+    private final long scratchMemoryBytes;
+    private final String cornerText;
+
+    public WatermarkService(
+            @Value("${app.pdf.scratch-memory-bytes:" + PdfUtils.DEFAULT_SCRATCH_MEMORY_BYTES + "}") long scratchMemoryBytes,
+            @Value("${app.pdf.watermark.corner-text:CONFIDENTIAL}") String cornerText) {
+        this.scratchMemoryBytes = scratchMemoryBytes;
+        this.cornerText = cornerText;
+    }
+
+    /**
+     * Identifies the layout and fixed texts, for callers that cache watermarked output
+     */
+    public String templateFingerprint() {
+        return "v" + TEMPLATE_VERSION + ":" + cornerText;
+    }
+
+    /**
+     * Write the watermarked PDF to out. watermarkText runs diagonally across the page and
+     * footerText (recipient, date) is printed small along the bottom edge.
+     */
+    public void writeWatermarked(Path source, String watermarkText, String footerText, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        try (PDDocument document = PdfUtils.loadDocument(source, scratchMemoryBytes)) {
+            if (document.isEncrypted()) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Encrypted PDFs cannot be watermarked");
+            }
+
+            PDFormXObject watermark = createWatermarkForm(document, watermarkText, footerText);
+            COSStream openState = createContentStream(document, "q\n");
+            Map<String, COSStream> placements = new HashMap<>();
+            Set<COSDictionary> changed = new HashSet<>();
+
+            for (PDPage page : document.getPages()) {
+                PDRectangle box = page.getCropBox();
+                String geometry = String.format(Locale.ROOT, "%.2f %.2f %.2f %.2f",
+                        box.getLowerLeftX(), box.getLowerLeftY(), box.getWidth(), box.getHeight());
+                COSStream placement = placements.get(geometry);
+                if (placement == null) {
+                    placement = createContentStream(document, placementOperators(box));
+                    placements.put(geometry, placement);
+                }
+
+                PDResources resources = page.getResources();
+                if (resources == null) {
+                    resources = new PDResources();
+                    page.setResources(resources);
+                }
+                resources.put(WATERMARK_NAME, watermark);
+                wrapContents(page.getCOSObject(), openState, placement);
+
+                changed.add(page.getCOSObject());
+                changed.add(resources.getCOSObject());
+                COSBase xObjects = resources.getCOSObject().getDictionaryObject(COSName.XOBJECT);
+                if (xObjects instanceof COSDictionary) {
+                    changed.add((COSDictionary) xObjects);
+                }
+            }
+
+            document.saveIncremental(out, changed);
+            log.info("Watermarked {} ({} pages) in {} ms", source.getFileName(), document.getNumberOfPages(),
+                    System.currentTimeMillis() - started);
+        }
+    }
+
+    private PDFormXObject createWatermarkForm(PDDocument document, String watermarkText, String footerText)
+            throws IOException {
+        PDType1Font bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        PDType1Font regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        String mainText = encodable(bold, watermarkText);
+        String corner = encodable(regular, cornerText);
+        String footer = encodable(regular, footerText);
+
+        PDFormXObject form = new PDFormXObject(document);
+        form.setBBox(new PDRectangle(CANVAS_WIDTH, CANVAS_HEIGHT));
+        form.setResources(new PDResources());
+
+        PDExtendedGraphicsState translucent = new PDExtendedGraphicsState();
+        translucent.setNonStrokingAlphaConstant(0.3f);
+        PDExtendedGraphicsState faint = new PDExtendedGraphicsState();
+        faint.setNonStrokingAlphaConstant(0.1f);
+
+        try (PDFormContentStream content = new PDFormContentStream(form)) {
+            // Diagonal main text
+            content.saveGraphicsState();
+            content.setGraphicsStateParameters(translucent);
+            content.setNonStrokingColor(Color.RED);
+            content.setFont(bold, 24);
+            float mainWidth = bold.getStringWidth(mainText) / 1000 * 24;
+            content.beginText();
+            Matrix matrix = Matrix.getTranslateInstance(CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2);
+            matrix.rotate(Math.toRadians(45));
+            matrix.translate(-mainWidth / 2, 0);
+            content.setTextMatrix(matrix);
+            content.showText(mainText);
+            content.endText();
+            content.restoreGraphicsState();
+
+            // Large faint stamp below it
+            content.saveGraphicsState();
+            content.setGraphicsStateParameters(faint);
+            content.setNonStrokingColor(Color.LIGHT_GRAY);
+            content.setFont(bold, 72);
+            float stampWidth = bold.getStringWidth("DOWNLOAD COPY") / 1000 * 72;
+            content.beginText();
+            Matrix stampMatrix = Matrix.getTranslateInstance(CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 - 100);
+            stampMatrix.rotate(Math.toRadians(45));
+            stampMatrix.translate(-stampWidth / 2, 0);
+            content.setTextMatrix(stampMatrix);
+            content.showText("DOWNLOAD COPY");
+            content.endText();
+            content.restoreGraphicsState();
+
+            // Corner labels and the footer
+            content.setNonStrokingColor(Color.GRAY);
+            content.setFont(regular, 10);
+            float cornerWidth = regular.getStringWidth(corner) / 1000 * 10;
+            showTextAt(content, corner, 20, CANVAS_HEIGHT - 30);
+            showTextAt(content, corner, CANVAS_WIDTH - cornerWidth - 20, CANVAS_HEIGHT - 30);
+            showTextAt(content, corner, 20, 20);
+            showTextAt(content, corner, CANVAS_WIDTH - cornerWidth - 20, 20);
+            if (!footer.isEmpty()) {
+                content.setFont(regular, 8);
+                float footerWidth = regular.getStringWidth(footer) / 1000 * 8;
+                showTextAt(content, footer, (CANVAS_WIDTH - footerWidth) / 2, 8);
+            }
+        }
+        return form;
+    }
+
+    private static void showTextAt(PDFormContentStream content, String text, float x, float y) throws IOException {
+        content.beginText();
+        content.newLineAtOffset(x, y);
+        content.showText(text);
+        content.endText();
+    }
+
+    // Scale the canvas uniformly onto the crop box, centred, and draw the shared form
+    private static String placementOperators(PDRectangle box) {
+        float scale = Math.min(box.getWidth() / CANVAS_WIDTH, box.getHeight() / CANVAS_HEIGHT);
+        float x = box.getLowerLeftX() + (box.getWidth() - CANVAS_WIDTH * scale) / 2;
+        float y = box.getLowerLeftY() + (box.getHeight() - CANVAS_HEIGHT * scale) / 2;
+        return String.format(Locale.ROOT, "Q\nq\n%.4f 0 0 %.4f %.4f %.4f cm\n/%s Do\nQ\n",
+                scale, scale, x, y, WATERMARK_NAME.getName());
+    }
+
+    /**
+     * Page contents become [q, original..., Q + watermark], so whatever graphics state the
+     * original leaves behind cannot leak into the watermark
+     */
+    private static void wrapContents(COSDictionary page, COSStream openState, COSStream placement) {
+        COSArray contents = new COSArray();
+        contents.add(openState);
+        COSBase existing = page.getDictionaryObject(COSName.CONTENTS);
+        if (existing instanceof COSArray) {
+            COSArray parts = (COSArray) existing;
+            for (int i = 0; i < parts.size(); i++) {
+                contents.add(parts.get(i));
+            }
+        } else if (existing instanceof COSStream) {
+            contents.add(page.getItem(COSName.CONTENTS));
+        }
+        contents.add(placement);
+        page.setItem(COSName.CONTENTS, contents);
+    }
+
+    private static COSStream createContentStream(PDDocument document, String operators) throws IOException {
+        COSStream stream = document.getDocument().createCOSStream();
+        try (OutputStream out = stream.createOutputStream()) {
+            out.write(operators.getBytes(StandardCharsets.US_ASCII));
+        }
+        return stream;
+    }
+
+    // Standard 14 fonts only cover WinAnsi; anything else is replaced rather than failing the download
+    private static String encodable(PDType1Font font, String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        text.codePoints().forEach(codePoint -> {
+            String character = new String(Character.toChars(codePoint));
+            try {
+                font.encode(character);
+                result.append(character);
+            } catch (IOException | IllegalArgumentException e) {
+                result.append('?');
+            }
+        });
+        return result.toString();
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.BulkUploadResponse;
+import com.example.demoPDF.dto.BulkUploadResult;
+import com.example.demoPDF.dto.PdfInspectionResult;
+import com.example.demoPDF.dto.PdfUploadRequest;
+import com.example.demoPDF.dto.StoredFile;
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.event.PdfDocumentFacetsEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.example.demoPDF.repository.PdfPageTextRepository;
+import com.example.demoPDF.service.BulkUploadService;
+import com.example.demoPDF.service.FileStorageService;
+import com.example.demoPDF.service.PdfInspector;
+import com.example.demoPDF.util.PdfDocumentMapper;
+import com.example.demoPDF.util.PdfQuickScanner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Catalogue imports: each file is staged locally, then stored and inspected on the bulk
+ * executor in parallel. Inspected documents are collected and inserted in JDBC batches
+ * (one transaction per batch), which the pooled id sequence on PdfDocument makes possible.
+ */
+@Service
+@Slf4j
+public class BulkUploadServiceImpl implements BulkUploadService {
+
+    // Page text waiting for insert is flushed early past this size so batches of big manuals stay bounded
+    private static final long MAX_BATCH_TEXT_CHARS = 8L * 1024 * 1024;
+
+    private final FileStorageService fileStorageService;
+    private final PdfDocumentRepository repository;
+    private final PdfPageTextRepository pageTextRepository;
+    private final PdfInspector pdfInspector;
+    private final ThreadPoolTaskExecutor bulkIngestionExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path stagingLocation;
+    private final int batchSize;
+
+    public BulkUploadServiceImpl(
+            FileStorageService fileStorageService,
+            PdfDocumentRepository repository,
+            PdfPageTextRepository pageTextRepository,
+            PdfInspector pdfInspector,
+            @Qualifier("bulkIngestionExecutor") ThreadPoolTaskExecutor bulkIngestionExecutor,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.bulk.staging-dir:${java.io.tmpdir}/pdf-bulk}") String stagingDir,
+            @Value("${app.bulk.batch-size:50}") int batchSize) {
+        this.fileStorageService = fileStorageService;
+        this.repository = repository;
+        this.pageTextRepository = pageTextRepository;
+        this.pdfInspector = pdfInspector;
+        this.bulkIngestionExecutor = bulkIngestionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.stagingLocation = Paths.get(stagingDir).toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void initStaging() {
+        try {
+            Files.createDirectories(stagingLocation);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create bulk staging directory " + stagingLocation, e);
+        }
+    }
+
+    @Override
+    public BulkUploadResponse uploadFiles(List<MultipartFile> files, PdfUploadRequest defaults) {
+        log.info("Bulk upload of {} files", files.size());
+        BulkRun run = new BulkRun(defaults);
+
+        for (MultipartFile file : files) {
+            String filename = StringUtils.cleanPath(String.valueOf(file.getOriginalFilename()));
+            if (file.isEmpty()) {
+                run.reject(filename, "File is empty");
+                continue;
+            }
+            if (!MediaType.APPLICATION_PDF_VALUE.equals(file.getContentType())) {
+                run.reject(filename, "File must be a PDF");
+                continue;
+            }
+
+            try {
+                Path staged = Files.createTempFile(stagingLocation, "bulk-", ".pdf");
+                file.transferTo(staged);
+                run.submit(filename, staged);
+            } catch (IOException e) {
+                run.reject(filename, "Could not stage file: " + e.getMessage());
+            }
+        }
+
+        return run.finish();
+    }
+
+    @Override
+    public BulkUploadResponse uploadArchive(InputStream archive, PdfUploadRequest defaults) {
+        log.info("Bulk upload from ZIP archive");
+        BulkRun run = new BulkRun(defaults);
+
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory() || isArchiveMetadata(entry.getName())) {
+                    continue;
+                }
+
+                // Only the last path segment is used, so entry names cannot escape the staging directory
+                String filename = StringUtils.getFilename(StringUtils.cleanPath(entry.getName()));
+                if (filename == null || !filename.toLowerCase().endsWith(".pdf")) {
+                    run.reject(entry.getName(), "Not a PDF entry");
+                    continue;
+                }
+
+                Path staged = Files.createTempFile(stagingLocation, "bulk-", ".pdf");
+                Files.copy(zip, staged, StandardCopyOption.REPLACE_EXISTING);
+                run.submit(filename, staged);
+            }
+        } catch (IOException e) {
+            log.error("Could not read bulk upload archive: {}", e.getMessage());
+            run.abort("Could not read archive: " + e.getMessage());
+        }
+
+        return run.finish();
+    }
+
+    private boolean isArchiveMetadata(String entryName) {
+        return entryName.startsWith("__MACOSX/") || StringUtils.getFilename(entryName).startsWith("._");
+    }
+
+    /**
+     * State of one bulk request: per-file results in submission order plus the pending insert batch
+     */
+    private class BulkRun {
+        private final PdfUploadRequest defaults;
+        private final long startedAt = System.currentTimeMillis();
+        private final List<BulkUploadResult> results = new ArrayList<>();
+        private final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        private final List<PdfDocument> batch = new ArrayList<>();
+        private final List<List<String>> batchPageTexts = new ArrayList<>();
+        private final List<BulkUploadResult> batchResults = new ArrayList<>();
+        private long batchTextChars;
+        private String abortReason;
+
+        BulkRun(PdfUploadRequest defaults) {
+            this.defaults = defaults;
+        }
+
+        void reject(String filename, String error) {
+            synchronized (results) {
+                results.add(BulkUploadResult.failed(filename, error));
+            }
+        }
+
+        void abort(String reason) {
+            this.abortReason = reason;
+        }
+
+        void submit(String filename, Path staged) {
+            BulkUploadResult result = new BulkUploadResult(filename, false, null, null, null);
+            synchronized (results) {
+                results.add(result);
+            }
+            tasks.add(CompletableFuture.runAsync(() -> process(result, staged), bulkIngestionExecutor));
+        }
+
+        private void process(BulkUploadResult result, Path staged) {
+            StoredFile storedFile = null;
+            try {
+                PdfQuickScanner.ScanResult scan = PdfQuickScanner.scan(staged);
+                if (!scan.isPdf()) {
+                    result.setError("File must be a PDF");
+                    return;
+                }
+                if (!scan.isReadable()) {
+                    result.setError("PDF page tree could not be read");
+                    return;
+                }
+
+                try (InputStream content = Files.newInputStream(staged)) {
+                    storedFile = fileStorageService.storeFile(content, result.getFilename());
+                }
+                PdfInspectionResult inspection = pdfInspector.inspect(
+                        fileStorageService.resolvePath(storedFile.getFilePath()));
+
+                PdfDocument document = PdfDocumentMapper.toEntity(storedFile, result.getFilename(),
+                        MediaType.APPLICATION_PDF_VALUE, inspection, requestFor(result.getFilename()));
+                result.setPageCount(inspection.getPageCount());
+                enqueue(document, inspection.getPageTexts(), result);
+
+            } catch (Exception e) {
+                log.warn("Bulk upload of {} failed: {}", result.getFilename(), e.getMessage());
+                result.setError(e.getMessage());
+                release(storedFile);
+            } finally {
+                try {
+                    Files.deleteIfExists(staged);
+                } catch (IOException e) {
+                    log.warn("Could not delete staged file {}: {}", staged, e.getMessage());
+                }
+            }
+        }
+
+        private synchronized void enqueue(PdfDocument document, List<String> pageTexts, BulkUploadResult result) {
+            batch.add(document);
+            batchPageTexts.add(pageTexts);
+            batchResults.add(result);
+            batchTextChars += pageTexts.stream().mapToLong(String::length).sum();
+            if (batch.size() >= batchSize || batchTextChars >= MAX_BATCH_TEXT_CHARS) {
+                flush();
+            }
+        }
+
+        private synchronized void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    repository.saveAll(batch);
+                    for (int i = 0; i < batch.size(); i++) {
+                        pageTextRepository.saveAll(
+                                PdfDocumentMapper.toPageTexts(batch.get(i).getId(), batchPageTexts.get(i)));
+                        eventPublisher.publishEvent(
+                                new PdfDocumentEvent(PdfDocumentEvent.Type.CREATED, batch.get(i).getId()));
+                        eventPublisher.publishEvent(new PdfDocumentFacetsEvent(
+                                null, PdfDocumentFacetsEvent.Values.of(batch.get(i))));
+                    }
+                });
+                for (int i = 0; i < batch.size(); i++) {
+                    batchResults.get(i).setDocumentId(batch.get(i).getId());
+                    batchResults.get(i).setSuccess(true);
+                }
+                log.debug("Inserted batch of {} documents", batch.size());
+            } catch (Exception e) {
+                log.error("Bulk insert of {} documents failed: {}", batch.size(), e.getMessage());
+                for (int i = 0; i < batch.size(); i++) {
+                    batchResults.get(i).setError("Database insert failed: " + e.getMessage());
+                    release(new StoredFile(batch.get(i).getFilePath(), 0, batch.get(i).getContentHash()));
+                }
+            } finally {
+                batch.clear();
+                batchPageTexts.clear();
+                batchResults.clear();
+                batchTextChars = 0;
+            }
+        }
+
+        BulkUploadResponse finish() {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+            flush();
+
+            List<BulkUploadResult> finished;
+            synchronized (results) {
+                finished = new ArrayList<>(results);
+            }
+            if (abortReason != null) {
+                finished.add(BulkUploadResult.failed("(archive)", abortReason));
+            }
+
+            int succeeded = (int) finished.stream().filter(BulkUploadResult::isSuccess).count();
+            long elapsed = System.currentTimeMillis() - startedAt;
+            log.info("Bulk upload finished: {} succeeded, {} failed in {} ms",
+                    succeeded, finished.size() - succeeded, elapsed);
+            return new BulkUploadResponse(finished.size(), succeeded, finished.size() - succeeded, elapsed, finished);
+        }
+
+        private PdfUploadRequest requestFor(String filename) {
+            PdfUploadRequest request = new PdfUploadRequest();
+            request.setTitle(filename.replaceAll("(?i)\\.pdf$", ""));
+            request.setProductCode(defaults.getProductCode());
+            request.setEdition(defaults.getEdition());
+            request.setPublicationDate(defaults.getPublicationDate());
+            request.setNotes(defaults.getNotes());
+            request.setCreatedBy(defaults.getCreatedBy());
+            return request;
+        }
+
+        private void release(StoredFile storedFile) {
+            if (storedFile == null) {
+                return;
+            }
+            try {
+                fileStorageService.deleteFile(storedFile.getFilePath());
+            } catch (Exception e) {
+                log.warn("Failed to release stored file {}: {}", storedFile.getFilePath(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.ChunkedUploadRequest;
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.PdfUploadRequest;
+import com.example.demoPDF.dto.UploadSessionDto;
+import com.example.demoPDF.service.ChunkedUploadService;
+import com.example.demoPDF.service.PdfDocumentService;
+import com.example.demoPDF.util.PdfQuickScanner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads: the client opens a session, PUTs chunks at explicit offsets and
+ * finally completes the session. Chunks are written straight into a sparse staging file
+ * with positional writes, so a retried chunk simply overwrites the same byte range.
+ */
+@Service
+@Slf4j
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final PdfDocumentService pdfDocumentService;
+    private final Path stagingLocation;
+    private final long maxFileSize;
+    private final long sessionTtlMinutes;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public ChunkedUploadServiceImpl(
+            PdfDocumentService pdfDocumentService,
+            @Value("${app.upload.chunked.staging-dir:${java.io.tmpdir}/pdf-chunks}") String stagingDir,
+            @Value("${app.upload.chunked.max-file-size:2147483648}") long maxFileSize,
+            @Value("${app.upload.chunked.session-ttl-minutes:60}") long sessionTtlMinutes) {
+        this.pdfDocumentService = pdfDocumentService;
+        this.stagingLocation = Paths.get(stagingDir).toAbsolutePath().normalize();
+        this.maxFileSize = maxFileSize;
+        this.sessionTtlMinutes = sessionTtlMinutes;
+    }
+
+    @PostConstruct
+    public void initStaging() {
+        try {
+            Files.createDirectories(stagingLocation);
+            log.info("Chunked upload staging location initialized: {}", stagingLocation);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create chunked upload staging directory " + stagingLocation, e);
+        }
+    }
+
+    @Override
+    public UploadSessionDto createSession(ChunkedUploadRequest request) {
+        String filename = StringUtils.cleanPath(request.getFilename());
+        if (filename.contains("..")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filename contains invalid path sequence " + filename);
+        }
+        if (request.getTotalSize() > maxFileSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "File size must not exceed " + maxFileSize + " bytes");
+        }
+
+        String sessionId = UUID.randomUUID().toString();
+        Path stagingFile = stagingLocation.resolve(sessionId + ".part");
+        try {
+            Files.createFile(stagingFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create staging file for upload " + filename, e);
+        }
+
+        UploadSession session = new UploadSession(sessionId, filename, request, stagingFile, sessionTtlMinutes);
+        sessions.put(sessionId, session);
+        log.info("Chunked upload session {} created for {} ({} bytes)", sessionId, filename, request.getTotalSize());
+        return session.toDto();
+    }
+
+    @Override
+    public UploadSessionDto writeChunk(String sessionId, int chunkNumber, long offset, InputStream content) {
+        UploadSession session = requireSession(sessionId);
+
+        synchronized (session) {
+            // Overlapping a range we already have is a retry; starting past it would leave a hole
+            if (offset < 0 || offset > session.receivedOffset) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Chunk " + chunkNumber + " starts at " + offset + " but only " + session.receivedOffset
+                                + " bytes have been received");
+            }
+
+            long position = offset;
+            try (FileChannel channel = FileChannel.open(session.stagingFile, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(content)) {
+                ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    if (position + buffer.remaining() > session.request.getTotalSize()) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "Chunk " + chunkNumber + " extends past the declared size of "
+                                        + session.request.getTotalSize() + " bytes");
+                    }
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                // Whatever reached the file before the failure is kept; the client resumes from receivedOffset
+                log.warn("Chunk {} of session {} interrupted at {}: {}", chunkNumber, sessionId, position, e.getMessage());
+                throw new RuntimeException("Could not write chunk " + chunkNumber + " of upload " + sessionId, e);
+            } finally {
+                session.receivedOffset = Math.max(session.receivedOffset, position);
+                session.touch(sessionTtlMinutes);
+            }
+
+            session.chunksReceived++;
+            if (session.receivedOffset == session.request.getTotalSize()) {
+                // Rescanned whenever a chunk lands on a complete file, since a retry may rewrite bytes
+                session.scan = PdfQuickScanner.scan(session.stagingFile);
+            }
+            log.debug("Session {} chunk {} written [{}, {}), received {} of {}", sessionId, chunkNumber, offset,
+                    position, session.receivedOffset, session.request.getTotalSize());
+            return session.toDto();
+        }
+    }
+
+    @Override
+    public UploadSessionDto getSession(String sessionId) {
+        return requireSession(sessionId).toDto();
+    }
+
+    @Override
+    public PdfDocumentDto completeSession(String sessionId) {
+        UploadSession session = requireSession(sessionId);
+
+        synchronized (session) {
+            if (session.receivedOffset != session.request.getTotalSize()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Upload incomplete: received " + session.receivedOffset + " of "
+                                + session.request.getTotalSize() + " bytes");
+            }
+            PdfQuickScanner.ScanResult scan = session.scan != null
+                    ? session.scan : PdfQuickScanner.scan(session.stagingFile);
+            if (!scan.isPdf()) {
+                discard(session);
+                throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "File must be a PDF");
+            }
+            if (!scan.isReadable()) {
+                discard(session);
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "PDF page tree could not be read");
+            }
+
+            try {
+                // Same metadata path as a single multipart upload
+                PdfDocumentDto document = pdfDocumentService.uploadDocument(
+                        session.stagingFile, session.filename, toUploadRequest(session));
+                log.info("Chunked upload session {} completed as document {}", sessionId, document.getId());
+                discard(session);
+                return document;
+            } catch (RuntimeException e) {
+                // Keep the staged bytes so the client can retry completion without re-sending
+                session.touch(sessionTtlMinutes);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void abortSession(String sessionId) {
+        UploadSession session = requireSession(sessionId);
+        synchronized (session) {
+            discard(session);
+        }
+        log.info("Chunked upload session {} aborted", sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.upload.chunked.cleanup-interval-ms:300000}")
+    public void expireSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        sessions.values().stream()
+                .filter(session -> session.expiresAt.isBefore(now))
+                .forEach(session -> {
+                    synchronized (session) {
+                        log.info("Chunked upload session {} expired after {} of {} bytes", session.sessionId,
+                                session.receivedOffset, session.request.getTotalSize());
+                        discard(session);
+                    }
+                });
+    }
+
+    private UploadSession requireSession(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload session not found: " + sessionId);
+        }
+        return session;
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.sessionId);
+        try {
+            Files.deleteIfExists(session.stagingFile);
+        } catch (IOException e) {
+            log.warn("Could not delete staging file {}: {}", session.stagingFile, e.getMessage());
+        }
+    }
+
+    private PdfUploadRequest toUploadRequest(UploadSession session) {
+        ChunkedUploadRequest source = session.request;
+        PdfUploadRequest request = new PdfUploadRequest();
+        request.setTitle(StringUtils.hasText(source.getTitle())
+                ? source.getTitle() : session.filename.replace(".pdf", ""));
+        request.setProductCode(source.getProductCode());
+        request.setEdition(source.getEdition());
+        request.setPublicationDate(source.getPublicationDate());
+        request.setNotes(source.getNotes());
+        request.setCreatedBy(source.getCreatedBy() != null ? source.getCreatedBy() : "system");
+        return request;
+    }
+
+    private static class UploadSession {
+        private final String sessionId;
+        private final String filename;
+        private final ChunkedUploadRequest request;
+        private final Path stagingFile;
+        private long receivedOffset;
+        private int chunksReceived;
+        private PdfQuickScanner.ScanResult scan;
+        private LocalDateTime expiresAt;
+
+        UploadSession(String sessionId, String filename, ChunkedUploadRequest request, Path stagingFile,
+                      long ttlMinutes) {
+            this.sessionId = sessionId;
+            this.filename = filename;
+            this.request = request;
+            this.stagingFile = stagingFile;
+            touch(ttlMinutes);
+        }
+
+        void touch(long ttlMinutes) {
+            this.expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+        }
+
+        UploadSessionDto toDto() {
+            return new UploadSessionDto(sessionId, filename, request.getTotalSize(), receivedOffset,
+                    chunksReceived, scan != null ? scan.getPageCount() : null,
+                    scan != null ? scan.getVersion() : null, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.StoredFile;
+import com.example.demoPDF.entity.PdfBlob;
+import com.example.demoPDF.repository.PdfBlobRepository;
+import com.example.demoPDF.service.FileStorageService;
+import com.example.demoPDF.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+/**
+ * Stores each distinct file once, under its SHA-256, and keeps a reference count per blob.
+ * Uploads are hashed into a local staging file first; when the hash is already known the
+ * staging copy is dropped and nothing is written to the (slow) storage location.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "content-addressed")
+@Slf4j
+public class ContentAddressedFileStorageServiceImpl implements FileStorageService {
+
+    private static final String BLOB_DIRECTORY = "blobs";
+    private static final String BLOB_EXTENSION = ".pdf";
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path fileStorageLocation;
+    private final Path stagingLocation;
+    private final PdfBlobRepository blobRepository;
+    private final TransactionTemplate blobTransaction;
+    private final Object[] hashLocks = new Object[LOCK_STRIPES];
+
+    public ContentAddressedFileStorageServiceImpl(
+            @Value("${app.upload.dir:./uploads/pdfs}") String uploadDir,
+            @Value("${app.storage.staging-dir:${java.io.tmpdir}/pdf-staging}") String stagingDir,
+            PdfBlobRepository blobRepository,
+            PlatformTransactionManager transactionManager) {
+        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.stagingLocation = Paths.get(stagingDir).toAbsolutePath().normalize();
+        this.blobRepository = blobRepository;
+
+        // Reference counts commit on their own so concurrent uploads of the same content see each other,
+        // and a blob row is never deleted by a caller's transaction (see sweepUnreferencedBlobs)
+        this.blobTransaction = new TransactionTemplate(transactionManager);
+        this.blobTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            hashLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void initStorage() {
+        try {
+            Files.createDirectories(this.fileStorageLocation.resolve(BLOB_DIRECTORY));
+            Files.createDirectories(this.stagingLocation);
+            log.info("Content-addressed storage initialized: {} (staging: {})",
+                    this.fileStorageLocation, this.stagingLocation);
+        } catch (Exception e) {
+            log.error("Could not create the directory where the uploaded files will be stored", e);
+            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", e);
+        }
+    }
+
+    @Override
+    public StoredFile storeFile(InputStream content, String originalFilename) {
+        String fileName = StringUtils.cleanPath(originalFilename);
+        if (fileName.contains("..")) {
+            throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
+        }
+
+        Path staged = null;
+        try {
+            // Hash into local staging; the shared location is only touched for new content
+            staged = Files.createTempFile(stagingLocation, "upload-", ".part");
+            MessageDigest digest = HashUtils.newContentDigest();
+            long fileSize;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                fileSize = Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            return storeBlob(staged, HashUtils.toHex(digest), fileSize);
+
+        } catch (IOException ex) {
+            log.error("Could not store file {}. Please try again!", fileName, ex);
+            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+        } finally {
+            deleteQuietly(staged);
+        }
+    }
+
+    private StoredFile storeBlob(Path staged, String contentHash, long fileSize) {
+        // The stripe lock only serialises this instance; the database decides between instances
+        synchronized (lockFor(contentHash)) {
+            try {
+                return blobTransaction.execute(status -> reuseOrInsertBlob(staged, contentHash, fileSize));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance inserted the same content first; take a reference to its row instead
+                log.debug("Blob {} was inserted concurrently, retrying as a reuse", contentHash);
+                return blobTransaction.execute(status -> reuseOrInsertBlob(staged, contentHash, fileSize));
+            }
+        }
+    }
+
+    private StoredFile reuseOrInsertBlob(Path staged, String contentHash, long fileSize) {
+        Optional<PdfBlob> existing = blobRepository.findById(contentHash);
+        // The increment waits for a sweep of this row to commit and then finds nothing to update
+        if (existing.isPresent() && blobRepository.incrementRefCount(contentHash) == 1) {
+            String storagePath = existing.get().getStoragePath();
+            if (Files.notExists(resolvePath(storagePath))) {
+                // Bytes unlinked by a sweep whose row delete did not commit; put them back
+                moveIntoPlace(staged, resolvePath(storagePath), contentHash);
+            }
+            log.info("Duplicate content {}, reusing stored blob {}", contentHash, storagePath);
+            return new StoredFile(storagePath, fileSize, contentHash);
+        }
+
+        Path target = blobPath(contentHash);
+        moveIntoPlace(staged, target, contentHash);
+        String relativePath = this.fileStorageLocation.relativize(target).toString();
+        blobRepository.saveAndFlush(new PdfBlob(contentHash, relativePath, fileSize, 1, null));
+        log.debug("New blob stored at: {}", relativePath);
+        return new StoredFile(relativePath, fileSize, contentHash);
+    }
+
+    private void moveIntoPlace(Path staged, Path target, String contentHash) {
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store blob " + contentHash, ex);
+        }
+    }
+
+    @Override
+    public Resource loadFileAsResource(String filePath) {
+        try {
+            Resource resource = new UrlResource(resolvePath(filePath).toUri());
+
+            if (resource.exists()) {
+                return resource;
+            } else {
+                throw new RuntimeException("File not found " + filePath);
+            }
+        } catch (MalformedURLException ex) {
+            log.error("File not found {}", filePath, ex);
+            throw new RuntimeException("File not found " + filePath, ex);
+        }
+    }
+
+    @Override
+    public Path resolvePath(String filePath) {
+        return this.fileStorageLocation.resolve(filePath).normalize();
+    }
+
+    /**
+     * Drops one reference to the blob at filePath. The bytes stay until the sweeper finds the
+     * blob unreferenced, so a caller whose transaction rolls back never points at a missing file.
+     * Paths that were stored before this backend was enabled have no blob row and are deleted directly.
+     */
+    @Override
+    public void deleteFile(String filePath) {
+        Optional<PdfBlob> blob = blobRepository.findByStoragePath(filePath);
+        if (blob.isEmpty()) {
+            deleteUnmanagedFile(filePath);
+            return;
+        }
+
+        String contentHash = blob.get().getContentHash();
+        blobTransaction.executeWithoutResult(status -> blobRepository.decrementRefCount(contentHash));
+        log.debug("Released a reference to blob {}", contentHash);
+    }
+
+    /**
+     * Removes blobs whose reference count has dropped to zero. Each one is unlinked while its
+     * row delete is still uncommitted, so an upload of the same content that arrives meanwhile
+     * blocks on the row and then stores the bytes again rather than reusing a path that is
+     * about to disappear.
+     */
+    @Scheduled(fixedDelayString = "${app.storage.blob-sweep-interval-ms:600000}")
+    public void sweepUnreferencedBlobs() {
+        int reclaimed = 0;
+        for (String contentHash : blobRepository.findUnreferencedHashes()) {
+            synchronized (lockFor(contentHash)) {
+                try {
+                    Boolean deleted = blobTransaction.execute(status -> {
+                        PdfBlob blob = blobRepository.findById(contentHash).orElse(null);
+                        if (blob == null || blobRepository.deleteIfUnreferenced(contentHash) == 0) {
+                            return false;
+                        }
+                        try {
+                            Files.deleteIfExists(resolvePath(blob.getStoragePath()));
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                        return true;
+                    });
+                    if (Boolean.TRUE.equals(deleted)) {
+                        reclaimed++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not reclaim blob {}, will retry: {}", contentHash, e.getMessage());
+                }
+            }
+        }
+        if (reclaimed > 0) {
+            log.info("Reclaimed {} unreferenced blobs", reclaimed);
+        }
+    }
+
+    private void deleteUnmanagedFile(String filePath) {
+        try {
+            Files.deleteIfExists(resolvePath(filePath));
+            log.debug("File deleted: {}", filePath);
+        } catch (IOException ex) {
+            log.error("Could not delete file {}", filePath, ex);
+            throw new RuntimeException("Could not delete file " + filePath, ex);
+        }
+    }
+
+    private Path blobPath(String contentHash) {
+        // Two levels of fan-out keep directory listings on the share small
+        return this.fileStorageLocation
+                .resolve(BLOB_DIRECTORY)
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash + BLOB_EXTENSION);
+    }
+
+    private Object lockFor(String contentHash) {
+        return hashLocks[Math.floorMod(contentHash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete staging file {}: {}", path, e.getMessage());
+        }
+    }
+}
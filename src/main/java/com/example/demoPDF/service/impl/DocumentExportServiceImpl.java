@@ -0,0 +1,212 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.PdfDocumentFileView;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.example.demoPDF.service.DocumentExportService;
+import com.example.demoPDF.service.FileStorageService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams bulk exports as ZIP archives. Documents are read from the database in small
+ * batches ordered by id, and each file is copied into the archive through its channel, so
+ * memory use is the same for ten files or ten thousand and the first bytes leave as soon as
+ * the first entry starts. PDFs are already compressed, so entries are STORED rather than
+ * deflated; STORED entries need their CRC up front, which costs one extra sequential read
+ * of each file instead of a deflate pass over it. The JSON catalogue export works the same
+ * way: DTOs are read through a database cursor and written through a JSON generator one by
+ * one.
+ */
+@Service
+@Slf4j
+public class DocumentExportServiceImpl implements DocumentExportService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // Push JSON to the client every this many documents rather than only when buffers fill
+    private static final int JSON_FLUSH_INTERVAL = 500;
+
+    private final PdfDocumentRepository repository;
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+
+    public DocumentExportServiceImpl(PdfDocumentRepository repository,
+                                     FileStorageService fileStorageService,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.pdf.export.batch-size:500}") int batchSize) {
+        this.repository = repository;
+        this.fileStorageService = fileStorageService;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public long countDocuments(String productCode, String edition) {
+        return repository.countForExport(productCode, edition);
+    }
+
+    @Override
+    public void writeZip(String productCode, String edition, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        int written = 0;
+        int missing = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        WritableByteChannel zipChannel = Channels.newChannel(zip);
+        long afterId = 0;
+        List<PdfDocumentFileView> batch;
+        do {
+            // Each batch is its own short query, so no connection is held while bytes are sent
+            batch = repository.findExportBatch(productCode, edition, afterId, PageRequest.of(0, batchSize));
+            for (PdfDocumentFileView document : batch) {
+                afterId = document.getId();
+                String entryName = entryName(document);
+                Path file = fileStorageService.resolvePath(document.getFilePath());
+                try {
+                    writeStoredEntry(zip, zipChannel, entryName, file, buffer);
+                    written++;
+                } catch (NoSuchFileException e) {
+                    log.warn("Export skipped document {}: file missing at {}", document.getId(), file);
+                    writeMissingNote(zip, entryName, document.getFilePath());
+                    missing++;
+                }
+            }
+            zip.flush();
+        } while (batch.size() == batchSize);
+        zip.finish();
+        zip.flush();
+
+        log.info("Exported {} documents for product code {} edition {} ({} missing) in {} ms",
+                written, productCode, edition, missing, System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public long writeDocumentsJson(boolean ndjson, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        // The row stream needs its connection for the whole write, which runs off the request thread
+        try {
+            Long written = readOnlyTransaction.execute(status -> {
+                try (Stream<PdfDocumentDto> rows = repository.streamActiveDocuments();
+                     JsonGenerator generator = objectMapper.createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    return ndjson ? writeLines(rows, generator) : writeArray(rows, generator);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Streamed {} documents as {} in {} ms", written, ndjson ? "NDJSON" : "JSON",
+                    System.currentTimeMillis() - started);
+            return written != null ? written : 0;
+        } catch (UncheckedIOException e) {
+            // Usually the client going away mid-download
+            throw e.getCause();
+        }
+    }
+
+    private static long writeArray(Stream<PdfDocumentDto> rows, JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        long written = writeEach(rows, generator);
+        generator.writeEndArray();
+        return written;
+    }
+
+    private static long writeLines(Stream<PdfDocumentDto> rows, JsonGenerator generator) throws IOException {
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        long written = writeEach(rows, generator);
+        if (written > 0) {
+            generator.writeRaw('\n');
+        }
+        return written;
+    }
+
+    private static long writeEach(Stream<PdfDocumentDto> rows, JsonGenerator generator) throws IOException {
+        long written = 0;
+        Iterator<PdfDocumentDto> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            generator.writeObject(iterator.next());
+            if (++written % JSON_FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        }
+        return written;
+    }
+
+    private static void writeStoredEntry(ZipOutputStream zip, WritableByteChannel zipChannel, String entryName,
+                                         Path file, ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ZipEntry entry = new ZipEntry(entryName);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(size);
+            entry.setCompressedSize(size);
+            entry.setCrc(crcOf(channel, buffer));
+            entry.setLastModifiedTime(Files.getLastModifiedTime(file));
+            zip.putNextEntry(entry);
+
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, zipChannel);
+            }
+            zip.closeEntry();
+        }
+    }
+
+    private static long crcOf(FileChannel channel, ByteBuffer buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        long position = 0;
+        buffer.clear();
+        int read;
+        while ((read = channel.read(buffer, position)) != -1) {
+            position += read;
+            buffer.flip();
+            crc.update(buffer);
+            buffer.clear();
+        }
+        return crc.getValue();
+    }
+
+    // A small text entry in place of the missing file, so the gap is visible in the archive itself
+    private static void writeMissingNote(ZipOutputStream zip, String entryName, String filePath) throws IOException {
+        zip.putNextEntry(new ZipEntry(entryName + ".missing.txt"));
+        zip.write(("File not found in storage: " + filePath + "\n").getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    // Filenames repeat across documents, so the id keeps entry names unique
+    private static String entryName(PdfDocumentFileView document) {
+        String filename = document.getFilename() != null ? document.getFilename() : "document.pdf";
+        return document.getId() + "_" + filename.replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.DocumentFacets;
+import com.example.demoPDF.dto.FacetCountView;
+import com.example.demoPDF.event.PdfDocumentFacetsEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.example.demoPDF.service.FacetService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Facet counts kept in memory as the number of active documents per (product code, edition,
+ * publication year) combination. There are far fewer combinations than documents, so any
+ * drill-down is a pass over them rather than a GROUP BY. Counters are seeded by one grouped
+ * query, adjusted after each committed create, change and delete, and periodically
+ * replaced by a fresh count to correct drift from changes made by other instances.
+ * Product codes and editions are keyed case-folded and without trailing blanks, the way
+ * the database collation groups them, so the seed and the adjustments land on the same
+ * counter; each is reported under the first spelling seen.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FacetServiceImpl implements FacetService {
+
+    private final PdfDocumentRepository repository;
+
+    // Null until first loaded; keyed by normalised values
+    private volatile Map<PdfDocumentFacetsEvent.Values, Long> counts;
+    // Normalised product code or edition -> spelling shown in the facets
+    private volatile Map<String, String> labels = new ConcurrentHashMap<>();
+
+    @Override
+    public DocumentFacets getFacets(String productCode, String edition, Integer publicationYear) {
+        Map<PdfDocumentFacetsEvent.Values, Long> current = counts;
+        if (current == null) {
+            resync();
+            current = counts;
+        }
+
+        String productFilter = normalise(productCode);
+        String editionFilter = normalise(edition);
+        Map<String, String> spellings = labels;
+        long total = 0;
+        Map<String, Long> productCodes = new HashMap<>();
+        Map<String, Long> editions = new HashMap<>();
+        Map<Integer, Long> publicationYears = new HashMap<>();
+        for (Map.Entry<PdfDocumentFacetsEvent.Values, Long> entry : current.entrySet()) {
+            PdfDocumentFacetsEvent.Values values = entry.getKey();
+            long count = entry.getValue();
+            boolean productMatches = matches(productFilter, values.getProductCode());
+            boolean editionMatches = matches(editionFilter, values.getEdition());
+            boolean yearMatches = publicationYear == null || publicationYear.equals(values.getPublicationYear());
+
+            if (productMatches && editionMatches && yearMatches) {
+                total += count;
+            }
+            if (editionMatches && yearMatches && values.getProductCode() != null) {
+                productCodes.merge(label(spellings, values.getProductCode()), count, Long::sum);
+            }
+            if (productMatches && yearMatches && values.getEdition() != null) {
+                editions.merge(label(spellings, values.getEdition()), count, Long::sum);
+            }
+            if (productMatches && editionMatches && values.getPublicationYear() != null) {
+                publicationYears.merge(values.getPublicationYear(), count, Long::sum);
+            }
+        }
+        return new DocumentFacets(total, largestFirst(productCodes), largestFirst(editions),
+                largestFirst(publicationYears));
+    }
+
+    // Runs after commit, so a rolled-back upload or edit never touches the counters
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFacetsChanged(PdfDocumentFacetsEvent event) {
+        Map<PdfDocumentFacetsEvent.Values, Long> current = counts;
+        if (current == null) {
+            return;
+        }
+        if (event.getBefore() != null) {
+            adjust(current, event.getBefore(), -1);
+        }
+        if (event.getAfter() != null) {
+            adjust(current, event.getAfter(), 1);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.facets.resync-ms:900000}")
+    public void resync() {
+        long started = System.currentTimeMillis();
+        Map<PdfDocumentFacetsEvent.Values, Long> fresh = new ConcurrentHashMap<>();
+        Map<String, String> freshLabels = new ConcurrentHashMap<>();
+        for (FacetCountView row : repository.countActiveByFacets()) {
+            PdfDocumentFacetsEvent.Values values = new PdfDocumentFacetsEvent.Values(row.getProductCode(),
+                    row.getEdition(), row.getPublicationYear());
+            fresh.merge(normalise(values, freshLabels), row.getDocumentCount(), Long::sum);
+        }
+        Map<PdfDocumentFacetsEvent.Values, Long> previous = counts;
+        labels = freshLabels;
+        counts = fresh;
+        if (previous != null && !previous.equals(fresh)) {
+            log.info("Facet counts corrected by resync ({} combinations)", fresh.size());
+        }
+        log.debug("Facet counts loaded: {} combinations in {} ms", fresh.size(), System.currentTimeMillis() - started);
+    }
+
+    private void adjust(Map<PdfDocumentFacetsEvent.Values, Long> counts,
+                        PdfDocumentFacetsEvent.Values values, long delta) {
+        // Atomic per key; a combination that drops to zero is removed
+        counts.compute(normalise(values, labels), (key, count) -> {
+            long updated = (count != null ? count : 0) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    // Both sides are already normalised
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.isBlank() || filter.equals(value);
+    }
+
+    // Records the first spelling of each product code and edition
+    private static PdfDocumentFacetsEvent.Values normalise(PdfDocumentFacetsEvent.Values values,
+                                                           Map<String, String> labels) {
+        String productCode = normalise(values.getProductCode());
+        String edition = normalise(values.getEdition());
+        if (productCode != null) {
+            labels.putIfAbsent(productCode, values.getProductCode().stripTrailing());
+        }
+        if (edition != null) {
+            labels.putIfAbsent(edition, values.getEdition().stripTrailing());
+        }
+        return new PdfDocumentFacetsEvent.Values(productCode, edition, values.getPublicationYear());
+    }
+
+    // Case-insensitive and blind to trailing blanks, like the SQL Server collation
+    private static String normalise(String value) {
+        return value != null ? value.stripTrailing().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String label(Map<String, String> labels, String normalised) {
+        return labels.getOrDefault(normalised, normalised);
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> largestFirst(Map<K, Long> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .collect(LinkedHashMap::new, (map, entry) -> map.put(entry.getKey(), entry.getValue()), Map::putAll);
+    }
+}
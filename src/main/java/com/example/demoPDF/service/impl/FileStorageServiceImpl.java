@@ -1,26 +1,30 @@
 package com.example.demoPDF.service.impl;
 
+import com.example.demoPDF.dto.StoredFile;
 import com.example.demoPDF.service.FileStorageService;
+import com.example.demoPDF.util.HashUtils;
+import com.example.demoPDF.util.StoredFileNames;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 @Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "unique", matchIfMissing = true)
 @Slf4j
 public class FileStorageServiceImpl implements FileStorageService {
 
@@ -42,9 +46,9 @@ public class FileStorageServiceImpl implements FileStorageService {
     }
 
     @Override
-    public String storeFile(MultipartFile file) {
+    public StoredFile storeFile(InputStream content, String originalFilename) {
         // Normalize file name
-        String fileName = StringUtils.cleanPath(file.getOriginalFilename());
+        String fileName = StringUtils.cleanPath(originalFilename);
 
         try {
             // Check if the file contains invalid characters
@@ -53,21 +57,21 @@ public class FileStorageServiceImpl implements FileStorageService {
             }
 
             // Generate unique file name to prevent conflicts
-            String fileExtension = "";
-            if (fileName.lastIndexOf(".") > 0) {
-                fileExtension = fileName.substring(fileName.lastIndexOf("."));
-            }
-
-            String uniqueFileName = generateUniqueFileName(fileName, fileExtension);
+            String uniqueFileName = StoredFileNames.uniqueFileName(fileName);
 
-            // Copy file to the target location (Replacing existing file with the same name)
+            // Copy file to the target location (Replacing existing file with the same name),
+            // hashing and counting the bytes in the same pass so the upload is read only once
             Path targetLocation = this.fileStorageLocation.resolve(uniqueFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            MessageDigest digest = HashUtils.newContentDigest();
+            long bytesWritten;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                bytesWritten = Files.copy(in, targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            }
 
             String relativePath = this.fileStorageLocation.relativize(targetLocation).toString();
-            log.debug("File stored successfully at: {}", relativePath);
+            log.debug("File stored successfully at: {} ({} bytes)", relativePath, bytesWritten);
 
-            return relativePath;
+            return new StoredFile(relativePath, bytesWritten, HashUtils.toHex(digest));
 
         } catch (IOException ex) {
             log.error("Could not store file {}. Please try again!", fileName, ex);
@@ -92,6 +96,11 @@ public class FileStorageServiceImpl implements FileStorageService {
         }
     }
 
+    @Override
+    public Path resolvePath(String filePath) {
+        return this.fileStorageLocation.resolve(filePath).normalize();
+    }
+
     @Override
     public void deleteFile(String filePath) {
         try {
@@ -103,15 +112,4 @@ public class FileStorageServiceImpl implements FileStorageService {
             throw new RuntimeException("Could not delete file " + filePath, ex);
         }
     }
-
-    private String generateUniqueFileName(String originalFileName, String extension) {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8);
-        String baseName = originalFileName.replace(extension, "");
-
-        // Clean base name for file system compatibility
-        baseName = baseName.replaceAll("[^a-zA-Z0-9._-]", "_");
-
-        return String.format("%s_%s_%s%s", baseName, timestamp, uuid, extension);
-    }
 }
@@ -0,0 +1,175 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.IngestionJobDto;
+import com.example.demoPDF.dto.IngestionStatus;
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.PdfUploadRequest;
+import com.example.demoPDF.service.IngestionJobService;
+import com.example.demoPDF.service.PdfDocumentService;
+import com.example.demoPDF.util.PdfQuickScanner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts an upload once its bytes are on local disk and leaves storage, PDF inspection and
+ * the database insert to the bounded ingestion executor. Job state is kept in memory.
+ */
+@Service
+@Slf4j
+public class IngestionJobServiceImpl implements IngestionJobService {
+
+    private final PdfDocumentService pdfDocumentService;
+    private final ThreadPoolTaskExecutor ingestionExecutor;
+    private final Path stagingLocation;
+    private final long jobRetentionMinutes;
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    public IngestionJobServiceImpl(
+            PdfDocumentService pdfDocumentService,
+            @Qualifier("ingestionExecutor") ThreadPoolTaskExecutor ingestionExecutor,
+            @Value("${app.ingest.staging-dir:${java.io.tmpdir}/pdf-ingest}") String stagingDir,
+            @Value("${app.ingest.job-retention-minutes:60}") long jobRetentionMinutes) {
+        this.pdfDocumentService = pdfDocumentService;
+        this.ingestionExecutor = ingestionExecutor;
+        this.stagingLocation = Paths.get(stagingDir).toAbsolutePath().normalize();
+        this.jobRetentionMinutes = jobRetentionMinutes;
+    }
+
+    @PostConstruct
+    public void initStaging() {
+        try {
+            Files.createDirectories(stagingLocation);
+            log.info("Ingestion staging location initialized: {}", stagingLocation);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create ingestion staging directory " + stagingLocation, e);
+        }
+    }
+
+    @Override
+    public IngestionJobDto submit(MultipartFile file, PdfUploadRequest request) {
+        String jobId = UUID.randomUUID().toString();
+        Path stagedFile = stageUpload(file, jobId);
+        // Trailer and page tree only; the full load happens on the ingestion pool
+        PdfQuickScanner.ScanResult scan = PdfQuickScanner.scan(stagedFile);
+        if (!scan.isPdf()) {
+            deleteStagedFile(stagedFile);
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "File must be a PDF");
+        }
+        if (!scan.isReadable()) {
+            deleteStagedFile(stagedFile);
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "PDF page tree could not be read");
+        }
+        IngestionJob job = new IngestionJob(jobId, file.getOriginalFilename(), scan);
+
+        jobs.put(job.jobId, job);
+        try {
+            ingestionExecutor.execute(() -> runJob(job, stagedFile, request));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.jobId);
+            deleteStagedFile(stagedFile);
+            log.warn("Ingestion queue full, rejecting upload {}", file.getOriginalFilename());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Ingestion queue is full, please retry later");
+        }
+
+        log.info("Ingestion job {} queued for {} (queue size: {})", job.jobId, job.filename,
+                ingestionExecutor.getThreadPoolExecutor().getQueue().size());
+        return job.toDto();
+    }
+
+    @Override
+    public Optional<IngestionJobDto> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(IngestionJob::toDto);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ingest.cleanup-interval-ms:300000}")
+    public void expireFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    private void runJob(IngestionJob job, Path stagedFile, PdfUploadRequest request) {
+        try {
+            PdfDocumentDto document = pdfDocumentService.uploadDocument(
+                    stagedFile, job.filename, request, status -> job.status = status);
+            job.documentId = document.getId();
+            job.status = IngestionStatus.COMPLETED;
+            log.info("Ingestion job {} completed as document {}", job.jobId, document.getId());
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = IngestionStatus.FAILED;
+            log.error("Ingestion job {} failed: {}", job.jobId, e.getMessage());
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            deleteStagedFile(stagedFile);
+        }
+    }
+
+    // The job is only acknowledged once the upload is flushed to local disk
+    private Path stageUpload(MultipartFile file, String jobId) {
+        Path stagedFile = stagingLocation.resolve(jobId + ".pdf");
+        try {
+            file.transferTo(stagedFile);
+            try (FileChannel channel = FileChannel.open(stagedFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            return stagedFile;
+        } catch (IOException e) {
+            deleteStagedFile(stagedFile);
+            throw new RuntimeException("Could not stage upload " + file.getOriginalFilename(), e);
+        }
+    }
+
+    private void deleteStagedFile(Path stagedFile) {
+        try {
+            Files.deleteIfExists(stagedFile);
+        } catch (IOException e) {
+            log.warn("Could not delete staged upload {}: {}", stagedFile, e.getMessage());
+        }
+    }
+
+    private static class IngestionJob {
+        private final String jobId;
+        private final String filename;
+        private final int pageCount;
+        private final String pdfVersion;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile IngestionStatus status = IngestionStatus.QUEUED;
+        private volatile Long documentId;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        IngestionJob(String jobId, String filename, PdfQuickScanner.ScanResult scan) {
+            this.jobId = jobId;
+            this.filename = filename;
+            this.pageCount = scan.getPageCount();
+            this.pdfVersion = scan.getVersion();
+        }
+
+        IngestionJobDto toDto() {
+            return new IngestionJobDto(jobId, filename, pageCount, pdfVersion, status, status.getProgress(), documentId, error,
+                    submittedAt, completedAt);
+        }
+    }
+}
@@ -1,22 +1,56 @@
 package com.example.demoPDF.service.impl;
 
+import com.example.demoPDF.dto.CursorPage;
+import com.example.demoPDF.dto.DocumentContent;
+import com.example.demoPDF.dto.IngestionStatus;
 import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.PdfDocumentSummaryDto;
+import com.example.demoPDF.dto.PdfInspectionResult;
+import com.example.demoPDF.dto.PdfMetadataDto;
 import com.example.demoPDF.dto.PdfUploadRequest;
+import com.example.demoPDF.dto.StoredFile;
 import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.entity.PdfOptimization;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.event.PdfDocumentFacetsEvent;
 import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.example.demoPDF.repository.PdfOptimizationRepository;
+import com.example.demoPDF.repository.PdfPageTextRepository;
+import com.example.demoPDF.service.CatalogueSubstringIndex;
+import com.example.demoPDF.service.PdfDocumentCache;
 import com.example.demoPDF.service.PdfDocumentService;
 import com.example.demoPDF.service.FileStorageService;
-import com.example.demoPDF.util.PdfUtils;
+import com.example.demoPDF.service.PdfInspector;
+import com.example.demoPDF.util.PdfDocumentMapper;
+import com.example.demoPDF.util.PdfQuickScanner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,74 +61,156 @@ public class PdfDocumentServiceImpl implements PdfDocumentService {
 
     private final PdfDocumentRepository repository;
     private final FileStorageService fileStorageService;
+    private final PdfInspector pdfInspector;
+    private final PdfPageTextRepository pageTextRepository;
+    private final PdfOptimizationRepository optimizationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PdfDocumentCache documentCache;
+    private final CatalogueSubstringIndex catalogueIndex;
+
+    @Value("${app.pdf.list.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pdf.list.max-page-size:100}")
+    private int maxPageSize;
 
     @Override
     public PdfDocumentDto uploadDocument(MultipartFile file, PdfUploadRequest request) {
         log.info("Starting PDF upload for file: {}", file.getOriginalFilename());
 
+        StoredFile storedFile = null;
         try {
             // Validate file
             validatePdfFile(file);
 
-            // Store file
-            String filePath = fileStorageService.storeFile(file);
-
-            // Extract PDF metadata
-            int pageCount = PdfUtils.getPageCount(file);
-
-            // Create entity
-            PdfDocument document = new PdfDocument();
-            document.setTitle(request.getTitle());
-            document.setFilename(file.getOriginalFilename());
-            document.setFilePath(filePath);
-            document.setFileSize(file.getSize());
-            document.setPageCount(pageCount);
-            document.setProductCode(request.getProductCode());
-            document.setEdition(request.getEdition());
-            document.setPublicationDate(request.getPublicationDate());
-            document.setNotes(request.getNotes());
-            document.setContentType(file.getContentType());
-            document.setCreatedBy(request.getCreatedBy() != null ? request.getCreatedBy() : "system");
-            document.setIsActive(true);
-
-            // Save to database
-            document = repository.save(document);
-
-            log.info("Successfully uploaded PDF with ID: {}", document.getId());
-            return convertToDto(document);
+            // Store file (single pass over the upload: copy, hash and byte count)
+            storedFile = fileStorageService.storeFile(file);
+            // A multipart part has no path of its own, so the page tree is checked on the stored copy
+            if (!PdfQuickScanner.scan(fileStorageService.resolvePath(storedFile.getFilePath())).isReadable()) {
+                throw new RuntimeException("PDF page tree could not be read");
+            }
+
+            return createDocument(storedFile, file.getOriginalFilename(), file.getContentType(), request,
+                    status -> { });
 
         } catch (Exception e) {
             log.error("Error uploading PDF: {}", e.getMessage(), e);
+            releaseStoredFile(storedFile);
             throw new RuntimeException("Failed to upload PDF: " + e.getMessage());
         }
     }
 
+    @Override
+    public PdfDocumentDto uploadDocument(Path stagedFile, String originalFilename, PdfUploadRequest request) {
+        return uploadDocument(stagedFile, originalFilename, request, status -> { });
+    }
+
+    @Override
+    public PdfDocumentDto uploadDocument(Path stagedFile, String originalFilename, PdfUploadRequest request,
+                                         Consumer<IngestionStatus> progress) {
+        log.info("Starting PDF upload for staged file: {} ({})", originalFilename, stagedFile);
+
+        StoredFile storedFile = null;
+        try (InputStream content = Files.newInputStream(stagedFile)) {
+            progress.accept(IngestionStatus.STORING);
+            storedFile = fileStorageService.storeFile(content, originalFilename);
+
+            return createDocument(storedFile, originalFilename, MediaType.APPLICATION_PDF_VALUE, request, progress);
+
+        } catch (Exception e) {
+            log.error("Error uploading PDF: {}", e.getMessage(), e);
+            releaseStoredFile(storedFile);
+            throw new RuntimeException("Failed to upload PDF: " + e.getMessage());
+        }
+    }
+
+    private PdfDocumentDto createDocument(StoredFile storedFile, String originalFilename, String contentType,
+                                          PdfUploadRequest request, Consumer<IngestionStatus> progress) {
+        // Extract PDF metadata from the stored copy in a single parse
+        progress.accept(IngestionStatus.INSPECTING);
+        PdfInspectionResult inspection = pdfInspector.inspect(fileStorageService.resolvePath(storedFile.getFilePath()));
+
+        // Create entity
+        PdfDocument document = PdfDocumentMapper.toEntity(storedFile, originalFilename, contentType, inspection, request);
+
+        // Save to database
+        progress.accept(IngestionStatus.SAVING);
+        document = repository.save(document);
+        pageTextRepository.saveAll(PdfDocumentMapper.toPageTexts(document.getId(), inspection.getPageTexts()));
+        eventPublisher.publishEvent(new PdfDocumentEvent(PdfDocumentEvent.Type.CREATED, document.getId()));
+        eventPublisher.publishEvent(new PdfDocumentFacetsEvent(null, PdfDocumentFacetsEvent.Values.of(document)));
+
+        log.info("Successfully uploaded PDF with ID: {}", document.getId());
+        return PdfDocumentMapper.toDto(document);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<PdfDocumentDto> getAllDocuments() {
         log.debug("Fetching all active documents");
         return repository.findByIsActiveTrueOrderByUploadDateDesc()
                 .stream()
-                .map(this::convertToDto)
+                .map(PdfDocumentMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<PdfDocumentDto> getAllDocuments(Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return getAllDocuments();
+        }
+        List<String> selected = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            if (!PdfDocumentRepository.DOCUMENT_FIELDS.contains(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown field '" + field + "'; expected any of " + PdfDocumentRepository.DOCUMENT_FIELDS);
+            }
+            selected.add(field);
+        }
+        log.debug("Fetching all active documents with fields {}", selected);
+        return repository.findActiveDocumentFields(selected);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PdfDocumentSummaryDto> getDocumentPage(String cursor, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        // One extra row tells us whether another page exists without a count query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<PdfDocumentSummaryDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repository.findSummaryPage(limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = repository.findSummaryPageAfter(LocalDateTime.parse(position[0]), Long.valueOf(position[1]), limit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            PdfDocumentSummaryDto last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getUploadDate(), last.getId());
+        }
+        return new CursorPage<>(rows, rows.size(), nextCursor);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<PdfDocumentDto> getDocumentById(Long id) {
         log.debug("Fetching document by ID: {}", id);
-        return repository.findByIdAndIsActiveTrue(id)
-                .map(this::convertToDto);
+        return documentCache.findActive(id)
+                .map(PdfDocumentMapper::toDto);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PdfDocumentDto> searchDocuments(String searchQuery) {
-        log.debug("Searching documents with query: {}", searchQuery);
-        return repository.searchDocuments(searchQuery)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public List<PdfDocumentSummaryDto> lookupDocuments(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Lookup query must not be empty");
+        }
+        int resultLimit = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return catalogueIndex.search(query, resultLimit);
     }
 
     @Override
@@ -104,6 +220,8 @@ public class PdfDocumentServiceImpl implements PdfDocumentService {
         PdfDocument document = repository.findByIdAndIsActiveTrue(id)
                 .orElseThrow(() -> new RuntimeException("Document not found with ID: " + id));
 
+        PdfDocumentFacetsEvent.Values facetsBefore = PdfDocumentFacetsEvent.Values.of(document);
+
         // Update fields
         document.setTitle(request.getTitle());
         document.setProductCode(request.getProductCode());
@@ -113,9 +231,14 @@ public class PdfDocumentServiceImpl implements PdfDocumentService {
         document.setUpdatedDate(LocalDateTime.now());
 
         document = repository.save(document);
+        eventPublisher.publishEvent(new PdfDocumentEvent(PdfDocumentEvent.Type.UPDATED, id));
+        PdfDocumentFacetsEvent.Values facetsAfter = PdfDocumentFacetsEvent.Values.of(document);
+        if (!facetsAfter.equals(facetsBefore)) {
+            eventPublisher.publishEvent(new PdfDocumentFacetsEvent(facetsBefore, facetsAfter));
+        }
 
         log.info("Successfully updated document with ID: {}", id);
-        return convertToDto(document);
+        return PdfDocumentMapper.toDto(document);
     }
 
     @Override
@@ -130,13 +253,10 @@ public class PdfDocumentServiceImpl implements PdfDocumentService {
             document.setIsActive(false);
             document.setUpdatedDate(LocalDateTime.now());
             repository.save(document);
-
-            // Delete file from storage
-            try {
-                fileStorageService.deleteFile(document.getFilePath());
-            } catch (Exception e) {
-                log.warn("Failed to delete file from storage: {}", e.getMessage());
-            }
+            pageTextRepository.deleteByDocumentId(id);
+            eventPublisher.publishEvent(new PdfDocumentEvent(PdfDocumentEvent.Type.DELETED, id));
+            eventPublisher.publishEvent(new PdfDocumentFacetsEvent(PdfDocumentFacetsEvent.Values.of(document), null));
+            // The stored file is released after commit, by DocumentFileReleaser
 
             log.info("Successfully deleted document with ID: {}", id);
             return true;
@@ -151,7 +271,7 @@ public class PdfDocumentServiceImpl implements PdfDocumentService {
     public Resource getDocumentFile(Long id) {
         log.debug("Getting file resource for document ID: {}", id);
 
-        PdfDocument document = repository.findByIdAndIsActiveTrue(id)
+        PdfDocument document = documentCache.findActive(id)
                 .orElseThrow(() -> new RuntimeException("Document not found with ID: " + id));
 
         return fileStorageService.loadFileAsResource(document.getFilePath());
@@ -162,18 +282,96 @@ public class PdfDocumentServiceImpl implements PdfDocumentService {
     public Resource downloadDocument(Long id) {
         log.debug("Downloading document with ID: {}", id);
 
-        // For now, return the same as getDocumentFile
-        // In the future, this could apply watermarks or other processing
+        // Unmodified bytes; watermarked downloads are served by WatermarkCacheService
         return getDocumentFile(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<DocumentContent> getDocumentContent(Long id, boolean original) {
+        return documentCache.findActive(id).map(document -> {
+            // The optimized copy, when one was kept, is what viewers get unless they ask for the original
+            String filePath = document.getFilePath();
+            String contentHash = document.getContentHash();
+            if (!original) {
+                Optional<PdfOptimization> optimization = optimizationRepository.findById(id)
+                        .filter(candidate -> candidate.getFilePath() != null);
+                if (optimization.isPresent()) {
+                    filePath = optimization.get().getFilePath();
+                    contentHash = optimization.get().getContentHash();
+                }
+            }
+
+            Path file = fileStorageService.resolvePath(filePath);
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                long lastModified = attributes.lastModifiedTime().toMillis();
+                // The content hash identifies the exact bytes, so it is a strong validator;
+                // documents stored before hashing get a weak one from size and mtime
+                String etag = contentHash != null
+                        ? "\"" + contentHash + "\""
+                        : "W/\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified) + "\"";
+                return new DocumentContent(file, document.getFilename(), document.getContentType(),
+                        attributes.size(), attributes.lastModifiedTime().toInstant(), etag);
+            } catch (IOException e) {
+                log.error("File for document {} is missing at {}", id, file);
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found for document ID: " + id);
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PdfMetadataDto> getDocumentMetadata(Long id) {
+        return documentCache.findActive(id)
+                .map(document -> new PdfMetadataDto(
+                        document.getId(),
+                        document.getPageCount(),
+                        document.getFileSize(),
+                        document.getContentHash(),
+                        document.getPdfInfo(),
+                        pageTextRepository.countByDocumentId(document.getId())));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public long getDocumentCount() {
-        return repository.countByIsActiveTrue();
+        return documentCache.activeCount();
+    }
+
+    // Give back the stored copy (or blob reference) when the upload fails after storage
+    private void releaseStoredFile(StoredFile storedFile) {
+        if (storedFile == null) {
+            return;
+        }
+        try {
+            fileStorageService.deleteFile(storedFile.getFilePath());
+        } catch (Exception e) {
+            log.warn("Failed to release stored file {}: {}", storedFile.getFilePath(), e.getMessage());
+        }
+    }
+
+    // Opaque to clients: base64url of "<uploadDate ISO>|<id>"
+    private static String encodeCursor(LocalDateTime uploadDate, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((uploadDate + "|" + id).getBytes(StandardCharsets.UTF_8));
     }
 
-    private void validatePdfFile(MultipartFile file) {
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("expected two parts");
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private void validatePdfFile(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new RuntimeException("File is empty");
         }
@@ -186,23 +384,12 @@ public class PdfDocumentServiceImpl implements PdfDocumentService {
         if (file.getSize() > 50 * 1024 * 1024) {
             throw new RuntimeException("File size must not exceed 50MB");
         }
-    }
 
-    private PdfDocumentDto convertToDto(PdfDocument document) {
-        PdfDocumentDto dto = new PdfDocumentDto();
-        dto.setId(document.getId());
-        dto.setTitle(document.getTitle());
-        dto.setFilename(document.getFilename());
-        dto.setFileSize(document.getFileSize());
-        dto.setPageCount(document.getPageCount());
-        dto.setProductCode(document.getProductCode());
-        dto.setEdition(document.getEdition());
-        dto.setPublicationDate(document.getPublicationDate());
-        dto.setNotes(document.getNotes());
-        dto.setContentType(document.getContentType());
-        dto.setUploadDate(document.getUploadDate());
-        dto.setCreatedBy(document.getCreatedBy());
-        dto.setUpdatedDate(document.getUpdatedDate());
-        return dto;
+        // The content type is client supplied; check the bytes before storing anything
+        try (InputStream content = file.getInputStream()) {
+            if (!PdfQuickScanner.hasPdfHeader(content)) {
+                throw new RuntimeException("File must be a PDF");
+            }
+        }
     }
 }
\ No newline at end of file
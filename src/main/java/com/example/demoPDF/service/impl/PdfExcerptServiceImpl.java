@@ -0,0 +1,240 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.DocumentContent;
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.service.FileStorageService;
+import com.example.demoPDF.service.PdfDocumentCache;
+import com.example.demoPDF.service.PdfExcerptService;
+import com.example.demoPDF.util.PdfUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PageExtractor;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Builds small PDFs from a page range of a stored document. The source is opened with a
+ * temp-file-only scratch setting so heap use does not depend on the manual's size, and
+ * each excerpt is written once to a disk cache keyed by content hash and page range;
+ * repeat requests are plain file reads. The cache is trimmed to its byte budget by
+ * evicting the least recently served excerpts.
+ */
+@Service
+@Slf4j
+public class PdfExcerptServiceImpl implements PdfExcerptService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final PdfDocumentCache documentCache;
+    private final FileStorageService fileStorageService;
+    private final Path cacheLocation;
+    private final long cacheMaxBytes;
+    private final int maxPages;
+    private final Object[] buildLocks = new Object[LOCK_STRIPES];
+    private final Map<String, Long> lastServed = new ConcurrentHashMap<>();
+
+    public PdfExcerptServiceImpl(
+            PdfDocumentCache documentCache,
+            FileStorageService fileStorageService,
+            @Value("${app.pdf.excerpt.cache-dir:${java.io.tmpdir}/pdf-excerpts}") String cacheDir,
+            @Value("${app.pdf.excerpt.cache-max-bytes:1073741824}") long cacheMaxBytes,
+            @Value("${app.pdf.excerpt.max-pages:200}") int maxPages) {
+        this.documentCache = documentCache;
+        this.fileStorageService = fileStorageService;
+        this.cacheLocation = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.cacheMaxBytes = cacheMaxBytes;
+        this.maxPages = maxPages;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            buildLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void initCache() {
+        try {
+            Files.createDirectories(cacheLocation);
+            // Excerpts from a previous run are still valid; seed their recency from the file time
+            try (Stream<Path> files = Files.list(cacheLocation)) {
+                files.filter(file -> file.getFileName().toString().endsWith(".pdf"))
+                        .forEach(file -> lastServed.put(file.getFileName().toString(), lastModifiedMillis(file)));
+            }
+            log.info("Excerpt cache initialized: {} ({} entries)", cacheLocation, lastServed.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create excerpt cache directory " + cacheLocation, e);
+        }
+    }
+
+    @Override
+    public DocumentContent getExcerpt(Long documentId, int fromPage, int toPage) {
+        PdfDocument document = documentCache.findActive(documentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Document not found with ID: " + documentId));
+        validateRange(document, fromPage, toPage);
+
+        Path source = fileStorageService.resolvePath(document.getFilePath());
+        String cacheKey = cacheKey(document, source, fromPage, toPage);
+        Path excerpt = cacheLocation.resolve(cacheKey);
+
+        if (!Files.exists(excerpt)) {
+            synchronized (buildLocks[Math.floorMod(cacheKey.hashCode(), LOCK_STRIPES)]) {
+                if (!Files.exists(excerpt)) {
+                    buildExcerpt(source, excerpt, fromPage, toPage);
+                }
+            }
+        }
+        lastServed.put(cacheKey, System.currentTimeMillis());
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(excerpt, BasicFileAttributes.class);
+            return new DocumentContent(excerpt, excerptFilename(document.getFilename(), fromPage, toPage),
+                    MediaType.APPLICATION_PDF_VALUE, attributes.size(),
+                    attributes.lastModifiedTime().toInstant(),
+                    "\"" + cacheKey.substring(0, cacheKey.length() - ".pdf".length()) + "\"");
+        } catch (IOException e) {
+            // Evicted between the build and this read; the next request rebuilds it
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Excerpt was evicted, please retry");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.pdf.excerpt.cleanup-interval-ms:600000}")
+    public void trimCache() {
+        List<Path> files = new ArrayList<>();
+        long totalBytes = 0;
+        try (Stream<Path> listing = Files.list(cacheLocation)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                if (file.getFileName().toString().endsWith(".pdf")) {
+                    files.add(file);
+                    totalBytes += Files.size(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan excerpt cache {}: {}", cacheLocation, e.getMessage());
+            return;
+        }
+        if (totalBytes <= cacheMaxBytes) {
+            return;
+        }
+
+        files.sort(Comparator.comparingLong(file -> lastServed.getOrDefault(file.getFileName().toString(), 0L)));
+        int evicted = 0;
+        for (Path file : files) {
+            if (totalBytes <= cacheMaxBytes) {
+                break;
+            }
+            try {
+                long size = Files.size(file);
+                Files.deleteIfExists(file);
+                lastServed.remove(file.getFileName().toString());
+                totalBytes -= size;
+                evicted++;
+            } catch (IOException e) {
+                log.warn("Could not evict excerpt {}: {}", file, e.getMessage());
+            }
+        }
+        log.info("Excerpt cache trimmed: {} files evicted, {} bytes remain", evicted, totalBytes);
+    }
+
+    private void validateRange(PdfDocument document, int fromPage, int toPage) {
+        if (fromPage < 1 || toPage < fromPage) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid page range " + fromPage + "-" + toPage);
+        }
+        if (toPage - fromPage + 1 > maxPages) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxPages + " pages can be extracted at once");
+        }
+        Integer pageCount = document.getPageCount();
+        if (pageCount != null && pageCount > 0 && toPage > pageCount) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Document has only " + pageCount + " pages");
+        }
+    }
+
+    private void buildExcerpt(Path source, Path target, int fromPage, int toPage) {
+        long started = System.currentTimeMillis();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try (PDDocument document = PdfUtils.loadDocument(source, MemoryUsageSetting.setupTempFileOnly())) {
+            if (toPage > document.getNumberOfPages()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Document has only " + document.getNumberOfPages() + " pages");
+            }
+            try (PDDocument excerpt = new PageExtractor(document, fromPage, toPage).extract()) {
+                excerpt.save(partial.toFile());
+            }
+            moveIntoPlace(partial, target);
+            log.info("Built excerpt {} (pages {}-{}) in {} ms", target.getFileName(), fromPage, toPage,
+                    System.currentTimeMillis() - started);
+        } catch (InvalidPasswordException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "PDF is password protected");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to extract pages " + fromPage + "-" + toPage + ": " + e.getMessage(), e);
+        } finally {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                log.warn("Could not delete partial excerpt {}: {}", partial, e.getMessage());
+            }
+        }
+    }
+
+    private static void moveIntoPlace(Path partial, Path target) throws IOException {
+        try {
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Documents stored before content hashing are keyed by id, size and mtime instead
+    private static String cacheKey(PdfDocument document, Path source, int fromPage, int toPage) {
+        String identity = document.getContentHash() != null
+                ? document.getContentHash()
+                : "doc" + document.getId() + "-" + Long.toHexString(sizeOf(source))
+                        + "-" + Long.toHexString(lastModifiedMillis(source));
+        return identity + "_" + fromPage + "-" + toPage + ".pdf";
+    }
+
+    private static String excerptFilename(String filename, int fromPage, int toPage) {
+        String baseName = filename != null ? filename.replaceAll("(?i)\\.pdf$", "") : "document";
+        return fromPage == toPage
+                ? baseName + "_p" + fromPage + ".pdf"
+                : baseName + "_p" + fromPage + "-" + toPage + ".pdf";
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Stored file is missing");
+        }
+    }
+
+    private static long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
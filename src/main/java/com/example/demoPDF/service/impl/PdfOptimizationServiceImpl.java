@@ -0,0 +1,292 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.PdfOptimizationDto;
+import com.example.demoPDF.dto.StoredFile;
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.entity.PdfOptimization;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.example.demoPDF.repository.PdfOptimizationRepository;
+import com.example.demoPDF.service.FileStorageService;
+import com.example.demoPDF.service.PdfOptimizationService;
+import com.example.demoPDF.util.PdfQuickScanner;
+import com.example.demoPDF.util.PdfUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional ingest stage that rewrites a stored PDF for faster viewing. PDFBox compacts the
+ * file into object streams and drops unreferenced objects (only objects reachable from the
+ * trailer are written). PDFBox cannot linearize, so when app.pdf.optimize.qpdf-path points
+ * at a qpdf binary, qpdf does the rewrite instead and also linearizes ("fast web view").
+ * The original is kept; the optimized copy is stored beside it and served by default.
+ * Only one run per document at a time: a second request gets 409 instead of storing a
+ * second artifact next to the first.
+ */
+@Service
+@Slf4j
+public class PdfOptimizationServiceImpl implements PdfOptimizationService {
+
+    private static final String TOOL_QPDF = "qpdf";
+    private static final String TOOL_PDFBOX = "pdfbox";
+
+    private final PdfDocumentRepository repository;
+    private final PdfOptimizationRepository optimizationRepository;
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolTaskExecutor optimizationExecutor;
+    private final boolean enabled;
+    private final String qpdfPath;
+    private final long timeoutSeconds;
+    private final long scratchMemoryBytes;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public PdfOptimizationServiceImpl(
+            PdfDocumentRepository repository,
+            PdfOptimizationRepository optimizationRepository,
+            FileStorageService fileStorageService,
+            @Qualifier("optimizationExecutor") ThreadPoolTaskExecutor optimizationExecutor,
+            @Value("${app.pdf.optimize.enabled:false}") boolean enabled,
+            @Value("${app.pdf.optimize.qpdf-path:}") String qpdfPath,
+            @Value("${app.pdf.optimize.timeout-seconds:120}") long timeoutSeconds,
+            @Value("${app.pdf.scratch-memory-bytes:" + PdfUtils.DEFAULT_SCRATCH_MEMORY_BYTES + "}") long scratchMemoryBytes) {
+        this.repository = repository;
+        this.optimizationRepository = optimizationRepository;
+        this.fileStorageService = fileStorageService;
+        this.optimizationExecutor = optimizationExecutor;
+        this.enabled = enabled;
+        this.qpdfPath = qpdfPath.trim();
+        this.timeoutSeconds = timeoutSeconds;
+        this.scratchMemoryBytes = scratchMemoryBytes;
+    }
+
+    /**
+     * Runs after the upload or delete has committed, on the optimization pool, so neither
+     * the request nor its transaction waits for the rewrite
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEvent(PdfDocumentEvent event) {
+        switch (event.getType()) {
+            case CREATED -> {
+                if (enabled) {
+                    submit(event, () -> optimize(event.getDocumentId()));
+                }
+            }
+            case DELETED -> submit(event, () -> discard(event.getDocumentId()));
+            default -> { }
+        }
+    }
+
+    @Override
+    public PdfOptimizationDto optimize(Long documentId) {
+        if (!running.add(documentId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Document " + documentId + " is already being optimized");
+        }
+        try {
+            return optimizeExclusively(documentId);
+        } finally {
+            running.remove(documentId);
+        }
+    }
+
+    private PdfOptimizationDto optimizeExclusively(Long documentId) {
+        PdfDocument document = repository.findByIdAndIsActiveTrue(documentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Document not found with ID: " + documentId));
+        if (document.getPdfInfo() != null && Boolean.TRUE.equals(document.getPdfInfo().getEncrypted())) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Encrypted PDFs are not optimized");
+        }
+
+        Path original = fileStorageService.resolvePath(document.getFilePath());
+        Path optimized = null;
+        StoredFile stored = null;
+        try {
+            optimized = Files.createTempFile("pdf-optimize-", ".pdf");
+            long started = System.currentTimeMillis();
+            boolean linearize = !qpdfPath.isEmpty();
+            if (linearize) {
+                rewriteWithQpdf(original, optimized);
+            } else {
+                compactWithPdfBox(original, optimized);
+            }
+            long rewriteMillis = System.currentTimeMillis() - started;
+
+            PdfOptimization optimization = optimizationRepository.findById(documentId).orElseGet(PdfOptimization::new);
+            String previousArtifact = optimization.getFilePath();
+            optimization.setDocumentId(documentId);
+            optimization.setTool(linearize ? TOOL_QPDF : TOOL_PDFBOX);
+            optimization.setLinearized(linearize);
+            optimization.setOriginalSize(Files.size(original));
+            optimization.setOptimizedSize(Files.size(optimized));
+            optimization.setOriginalFirstPageBytes(firstPageBytes(original));
+            optimization.setOptimizedFirstPageBytes(firstPageBytes(optimized));
+
+            // A compacted copy that came out larger is not worth serving; a linearized one still is
+            if (linearize || optimization.getOptimizedSize() < optimization.getOriginalSize()) {
+                try (InputStream content = Files.newInputStream(optimized)) {
+                    stored = fileStorageService.storeFile(content, optimizedFilename(document.getFilename()));
+                }
+                optimization.setFilePath(stored.getFilePath());
+                optimization.setFileSize(stored.getFileSize());
+                optimization.setContentHash(stored.getContentHash());
+            } else {
+                optimization.setFilePath(null);
+                optimization.setFileSize(null);
+                optimization.setContentHash(null);
+            }
+
+            // If the save fails, stored is still set and the finally block gives the new copy back
+            optimization = optimizationRepository.save(optimization);
+            stored = null;
+            if (previousArtifact != null) {
+                releaseArtifact(previousArtifact);
+            }
+
+            PdfOptimizationDto report = toDto(optimization);
+            log.info("Optimized document {} with {} in {} ms: {} -> {} bytes ({}% saved), first page after {} -> {} bytes{}",
+                    documentId, report.getTool(), rewriteMillis, report.getOriginalSize(), report.getOptimizedSize(),
+                    report.getPercentSaved(), report.getOriginalFirstPageBytes(), report.getOptimizedFirstPageBytes(),
+                    report.isServed() ? "" : " (kept original)");
+            return report;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to optimize document " + documentId + ": " + e.getMessage(), e);
+        } finally {
+            if (stored != null) {
+                releaseArtifact(stored.getFilePath());
+            }
+            if (optimized != null) {
+                try {
+                    Files.deleteIfExists(optimized);
+                } catch (IOException e) {
+                    log.warn("Could not delete temp file {}: {}", optimized, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<PdfOptimizationDto> getOptimization(Long documentId) {
+        return optimizationRepository.findById(documentId).map(this::toDto);
+    }
+
+    private void discard(Long documentId) {
+        optimizationRepository.findById(documentId).ifPresent(optimization -> {
+            if (optimization.getFilePath() != null) {
+                releaseArtifact(optimization.getFilePath());
+            }
+            optimizationRepository.delete(optimization);
+        });
+    }
+
+    private void submit(PdfDocumentEvent event, Runnable task) {
+        try {
+            optimizationExecutor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.warn("Optimization task for {} failed: {}", event, e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("Optimization queue full, skipping {}", event);
+        }
+    }
+
+    private void compactWithPdfBox(Path source, Path target) throws IOException {
+        try (PDDocument document = PdfUtils.loadDocument(source, scratchMemoryBytes)) {
+            document.save(target.toFile(), CompressParameters.DEFAULT_COMPRESSION);
+        }
+    }
+
+    private void rewriteWithQpdf(Path source, Path target) throws IOException {
+        Process process = new ProcessBuilder(qpdfPath, "--linearize", "--object-streams=generate",
+                "--compress-streams=y", source.toString(), target.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("qpdf timed out after " + timeoutSeconds + " s");
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for qpdf");
+        }
+        // Exit code 3 means the output was written but qpdf reported warnings
+        int exitCode = process.exitValue();
+        if (exitCode != 0 && exitCode != 3) {
+            throw new IOException("qpdf exited with code " + exitCode);
+        }
+    }
+
+    /**
+     * Bytes a viewer streaming the file needs before page 1 can render, or null if unreadable.
+     * Rendering from local disk says nothing about linearization, which only pays off when the
+     * file arrives over the network.
+     */
+    private Long firstPageBytes(Path file) {
+        try {
+            return PdfQuickScanner.firstPageBytes(file);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read linearization of {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void releaseArtifact(String filePath) {
+        try {
+            fileStorageService.deleteFile(filePath);
+        } catch (Exception e) {
+            log.warn("Failed to delete optimized file {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    private static String optimizedFilename(String filename) {
+        String baseName = filename != null ? filename.replaceAll("(?i)\\.pdf$", "") : "document";
+        return baseName + "_optimized.pdf";
+    }
+
+    private PdfOptimizationDto toDto(PdfOptimization optimization) {
+        long originalSize = optimization.getOriginalSize();
+        long bytesSaved = originalSize - optimization.getOptimizedSize();
+        double percentSaved = originalSize > 0 ? Math.round(1000.0 * bytesSaved / originalSize) / 10.0 : 0;
+        Long firstPageBytesSaved = optimization.getOriginalFirstPageBytes() != null
+                && optimization.getOptimizedFirstPageBytes() != null
+                ? optimization.getOriginalFirstPageBytes() - optimization.getOptimizedFirstPageBytes()
+                : null;
+        return new PdfOptimizationDto(
+                optimization.getDocumentId(),
+                optimization.getTool(),
+                Boolean.TRUE.equals(optimization.getLinearized()),
+                optimization.getFilePath() != null,
+                originalSize,
+                optimization.getOptimizedSize(),
+                bytesSaved,
+                percentSaved,
+                optimization.getOriginalFirstPageBytes(),
+                optimization.getOptimizedFirstPageBytes(),
+                firstPageBytesSaved,
+                optimization.getCreatedDate());
+    }
+}
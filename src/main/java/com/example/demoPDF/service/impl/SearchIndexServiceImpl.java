@@ -0,0 +1,558 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.DocumentSearchResult;
+import com.example.demoPDF.dto.DocumentTextSearchResult;
+import com.example.demoPDF.dto.PageMatch;
+import com.example.demoPDF.dto.PageHit;
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.entity.PdfPageText;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.example.demoPDF.repository.PdfPageTextRepository;
+import com.example.demoPDF.service.SearchIndexService;
+import com.example.demoPDF.util.PdfDocumentMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded Lucene index over document metadata and extracted page text, kept on local disk.
+ * Each document is one metadata entry plus one entry per page, all tagged with the document
+ * id so an update replaces them in one step. The index follows PdfDocumentEvent on a single
+ * worker, reading what was committed, and is rebuilt from the database when it starts empty.
+ * Searches score metadata and page hits together and group them by document; the database
+ * stays the source of truth for what is shown.
+ */
+@Service
+@Slf4j
+public class SearchIndexServiceImpl implements SearchIndexService {
+
+    private static final String FIELD_DOCUMENT_ID = "documentId";
+    private static final String FIELD_KIND = "kind";
+    private static final String FIELD_PAGE = "page";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_FILENAME = "filename";
+    private static final String FIELD_PRODUCT_CODE = "productCode";
+    private static final String FIELD_EDITION = "edition";
+    private static final String FIELD_NOTES = "notes";
+    private static final String FIELD_TEXT = "text";
+    private static final String KIND_DOCUMENT = "document";
+    private static final String KIND_PAGE = "page";
+
+    // Field weights: a match in the title or product code says more than one in the body
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(
+            FIELD_TITLE, 3.0f,
+            FIELD_PRODUCT_CODE, 3.0f,
+            FIELD_EDITION, 2.0f,
+            FIELD_FILENAME, 2.0f,
+            FIELD_NOTES, 1.0f,
+            FIELD_TEXT, 1.0f);
+
+    private static final int MAX_CANDIDATES = 1000;
+    private static final int PAGE_HITS_PER_DOCUMENT = 3;
+    private static final int REBUILD_BATCH_SIZE = 200;
+    private static final int MAX_POSITIONS_PER_PAGE = 100;
+
+    // Page text is stored for snippets and indexed with offsets, so hit positions and
+    // highlighting come straight from the postings instead of re-analyzing the page
+    private static final FieldType PAGE_TEXT_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        PAGE_TEXT_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        PAGE_TEXT_TYPE.freeze();
+    }
+
+    private final PdfDocumentRepository repository;
+    private final PdfPageTextRepository pageTextRepository;
+    private final ThreadPoolTaskExecutor searchIndexExecutor;
+    private final Path indexLocation;
+    private final int maxResults;
+    private final Analyzer analyzer;
+
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    // While set, nothing refreshes or commits, so neither searches nor the on-disk commit see a half-built index
+    private volatile boolean rebuilding;
+
+    public SearchIndexServiceImpl(
+            PdfDocumentRepository repository,
+            PdfPageTextRepository pageTextRepository,
+            @Qualifier("searchIndexExecutor") ThreadPoolTaskExecutor searchIndexExecutor,
+            @Value("${app.search.index-dir:${java.io.tmpdir}/pdf-search-index}") String indexDir,
+            @Value("${app.search.max-results:100}") int maxResults) {
+        this.repository = repository;
+        this.pageTextRepository = pageTextRepository;
+        this.searchIndexExecutor = searchIndexExecutor;
+        this.indexLocation = Paths.get(indexDir).toAbsolutePath().normalize();
+        this.maxResults = maxResults;
+        // English stemming for prose; codes, editions and filenames are only tokenized and lower-cased
+        this.analyzer = new PerFieldAnalyzerWrapper(new EnglishAnalyzer(), Map.of(
+                FIELD_PRODUCT_CODE, new StandardAnalyzer(),
+                FIELD_EDITION, new StandardAnalyzer(),
+                FIELD_FILENAME, new StandardAnalyzer()));
+    }
+
+    @PostConstruct
+    public void openIndex() {
+        try {
+            Files.createDirectories(indexLocation);
+            Directory directory = FSDirectory.open(indexLocation);
+            IndexWriterConfig.OpenMode openMode = IndexWriterConfig.OpenMode.CREATE_OR_APPEND;
+            if (!hasCurrentLayout(directory)) {
+                // Lucene refuses to mix index options for a field; start over and let rebuildIfEmpty refill it
+                log.warn("Search index at {} was built with an older layout, recreating it", indexLocation);
+                openMode = IndexWriterConfig.OpenMode.CREATE;
+            }
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(openMode));
+            searcherManager = new SearcherManager(writer, null);
+            log.info("Search index opened: {} ({} entries)", indexLocation, writer.getDocStats().numDocs);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open search index at " + indexLocation, e);
+        }
+    }
+
+    private static boolean hasCurrentLayout(Directory directory) throws IOException {
+        if (!DirectoryReader.indexExists(directory)) {
+            return true;
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            FieldInfo text = FieldInfos.getMergedFieldInfos(reader).fieldInfo(FIELD_TEXT);
+            return text == null || text.getIndexOptions() == PAGE_TEXT_TYPE.indexOptions();
+        }
+    }
+
+    @PreDestroy
+    public void closeIndex() throws IOException {
+        searcherManager.close();
+        if (rebuilding) {
+            // Closing would commit the partial rebuild; keep the last complete commit instead
+            writer.rollback();
+        } else {
+            writer.close();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (writer.getDocStats().numDocs == 0 && repository.countByIsActiveTrue() > 0) {
+            log.info("Search index is empty, rebuilding from the database");
+            rebuildIndex();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEvent(PdfDocumentEvent event) {
+        try {
+            searchIndexExecutor.execute(() -> reindexDocument(event.getDocumentId()));
+        } catch (TaskRejectedException e) {
+            log.warn("Search index queue is full, document {} will be stale until the next reindex",
+                    event.getDocumentId());
+        }
+    }
+
+    @Override
+    public List<DocumentSearchResult> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must not be empty");
+        }
+        int resultLimit = Math.max(1, Math.min(limit, maxResults));
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+        parser.setDefaultOperator(BooleanClause.Occur.SHOULD);
+        Query parsed = parser.parse(query.trim());
+        if (parsed == null) {
+            // Only stop words or syntax
+            return List.of();
+        }
+
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            TopDocs candidates = searcher.search(parsed, MAX_CANDIDATES);
+            StoredFields storedFields = searcher.storedFields();
+
+            // Group entries by document: metadata score plus the best page, with a little credit for other pages
+            Map<Long, RankedDocument> ranked = new LinkedHashMap<>();
+            for (ScoreDoc hit : candidates.scoreDocs) {
+                Document entry = storedFields.document(hit.doc);
+                Long documentId = Long.valueOf(entry.get(FIELD_DOCUMENT_ID));
+                RankedDocument document = ranked.computeIfAbsent(documentId, id -> new RankedDocument());
+                if (KIND_PAGE.equals(entry.get(FIELD_KIND))) {
+                    document.addPage(hit, entry.getField(FIELD_PAGE).numericValue().intValue());
+                } else {
+                    document.metadataScore = hit.score;
+                }
+            }
+
+            List<Map.Entry<Long, RankedDocument>> best = ranked.entrySet().stream()
+                    .sorted(Comparator.comparingDouble((Map.Entry<Long, RankedDocument> entry) ->
+                            entry.getValue().score()).reversed())
+                    .limit(resultLimit)
+                    .collect(Collectors.toList());
+            Map<Long, PdfDocumentDto> documents = repository.findAllById(
+                            best.stream().map(Map.Entry::getKey).collect(Collectors.toList()))
+                    .stream()
+                    .filter(document -> Boolean.TRUE.equals(document.getIsActive()))
+                    .collect(Collectors.toMap(PdfDocument::getId, PdfDocumentMapper::toDto));
+
+            Map<Integer, String> snippets = highlightPages(searcher, parsed, best);
+            List<DocumentSearchResult> results = new ArrayList<>();
+            for (Map.Entry<Long, RankedDocument> entry : best) {
+                PdfDocumentDto document = documents.get(entry.getKey());
+                if (document == null) {
+                    // Deleted after it was indexed; the pending event will remove it
+                    continue;
+                }
+                List<PageHit> pageHits = entry.getValue().topPages().stream()
+                        .map(page -> new PageHit(page.pageNumber, page.hit.score, snippets.get(page.hit.doc)))
+                        .collect(Collectors.toList());
+                results.add(new DocumentSearchResult(document, entry.getValue().score(), pageHits));
+            }
+            return results;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search failed: " + e.getMessage(), e);
+        } finally {
+            releaseSearcher(searcher);
+        }
+    }
+
+    @Override
+    public DocumentTextSearchResult searchWithinDocument(Long documentId, String query) {
+        long started = System.currentTimeMillis();
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must not be empty");
+        }
+        if (repository.findByIdAndIsActiveTrue(documentId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found with ID: " + documentId);
+        }
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_TEXT);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query textQuery = parser.parse(query.trim());
+        if (textQuery == null) {
+            return new DocumentTextSearchResult(documentId, query, 0, List.of(), System.currentTimeMillis() - started);
+        }
+        Set<Term> collectedTerms = new HashSet<>();
+        textQuery.visit(QueryVisitor.termCollector(collectedTerms));
+        Set<String> queryTerms = collectedTerms.stream().map(Term::text).collect(Collectors.toSet());
+
+        Term idTerm = new Term(FIELD_DOCUMENT_ID, String.valueOf(documentId));
+        Query pageQuery = new BooleanQuery.Builder()
+                .add(new TermQuery(idTerm), BooleanClause.Occur.FILTER)
+                .add(new TermQuery(new Term(FIELD_KIND, KIND_PAGE)), BooleanClause.Occur.FILTER)
+                .add(textQuery, BooleanClause.Occur.MUST)
+                .build();
+
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            if (searcher.count(new TermQuery(idTerm)) == 0) {
+                // Not indexed yet (event still queued): index it now from the stored text. During a
+                // rebuild the new entry only becomes visible once the rebuild is done.
+                releaseSearcher(searcher);
+                searcher = null;
+                reindexDocument(documentId);
+                searcher = acquireSearcher();
+            }
+
+            int matchingPages = searcher.count(pageQuery);
+            List<PageMatch> pages = new ArrayList<>(matchingPages);
+            int totalHits = 0;
+            if (matchingPages > 0) {
+                TopDocs hits = searcher.search(pageQuery, matchingPages);
+                String[] snippets = highlighter(searcher).highlight(FIELD_TEXT, textQuery, hits, 2);
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = 0; i < hits.scoreDocs.length; i++) {
+                    Document entry = storedFields.document(hits.scoreDocs[i].doc, Set.of(FIELD_PAGE));
+                    int pageNumber = entry.getField(FIELD_PAGE).numericValue().intValue();
+                    PageMatch match = matchPositions(searcher, hits.scoreDocs[i].doc, pageNumber, queryTerms);
+                    match.setSnippet(snippets[i]);
+                    totalHits += match.getHitCount();
+                    pages.add(match);
+                }
+                pages.sort(Comparator.comparingInt(PageMatch::getPageNumber));
+            }
+            return new DocumentTextSearchResult(documentId, query, totalHits, pages,
+                    System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search failed: " + e.getMessage(), e);
+        } finally {
+            if (searcher != null) {
+                releaseSearcher(searcher);
+            }
+        }
+    }
+
+    @Override
+    public void reindexDocument(Long documentId) {
+        try {
+            indexDocument(documentId);
+            if (!rebuilding) {
+                searcherManager.maybeRefresh();
+            }
+        } catch (IOException e) {
+            log.error("Could not index document {}: {}", documentId, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void rebuildIndex() {
+        try {
+            searchIndexExecutor.execute(this::rebuildNow);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is busy, try again later");
+        }
+    }
+
+    // Periodic commit so a crash loses at most a few seconds of updates (the index can always be rebuilt)
+    @Scheduled(fixedDelayString = "${app.search.commit-interval-ms:30000}")
+    public void commit() {
+        if (rebuilding) {
+            return;
+        }
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            log.warn("Could not commit search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs on the index worker, so events arriving meanwhile queue behind it. The index is
+     * emptied and refilled in the same writer, but refreshes and commits are held back until
+     * it is full again: searches keep using the previous snapshot, and a crash part way
+     * through reopens the last complete commit. If the rebuild fails, both stay held back
+     * and searches stay on the old snapshot until a rebuild succeeds.
+     */
+    private void rebuildNow() {
+        long started = System.currentTimeMillis();
+        int indexed = 0;
+        rebuilding = true;
+        try {
+            writer.deleteAll();
+            long afterId = 0;
+            List<Long> batch;
+            do {
+                batch = repository.findActiveIdsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Long documentId : batch) {
+                    indexDocument(documentId);
+                    afterId = documentId;
+                    indexed++;
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            writer.commit();
+            rebuilding = false;
+            searcherManager.maybeRefresh();
+            log.info("Search index rebuilt: {} documents in {} ms", indexed, System.currentTimeMillis() - started);
+        } catch (IOException | RuntimeException e) {
+            log.error("Search index rebuild failed after {} documents, searches stay on the previous snapshot "
+                    + "until a rebuild succeeds: {}", indexed, e.getMessage(), e);
+        }
+    }
+
+    private void indexDocument(Long documentId) throws IOException {
+        Term idTerm = new Term(FIELD_DOCUMENT_ID, String.valueOf(documentId));
+        PdfDocument document = repository.findByIdAndIsActiveTrue(documentId).orElse(null);
+        if (document == null) {
+            writer.deleteDocuments(idTerm);
+            return;
+        }
+
+        List<Document> entries = new ArrayList<>();
+        Document metadata = new Document();
+        metadata.add(new StringField(FIELD_DOCUMENT_ID, idTerm.text(), Field.Store.YES));
+        metadata.add(new StringField(FIELD_KIND, KIND_DOCUMENT, Field.Store.YES));
+        addText(metadata, FIELD_TITLE, document.getTitle());
+        addText(metadata, FIELD_FILENAME, document.getFilename());
+        addText(metadata, FIELD_PRODUCT_CODE, document.getProductCode());
+        addText(metadata, FIELD_EDITION, document.getEdition());
+        addText(metadata, FIELD_NOTES, document.getNotes());
+        entries.add(metadata);
+
+        for (PdfPageText page : pageTextRepository.findByDocumentIdOrderByPageNumber(documentId)) {
+            if (page.getText() == null || page.getText().isBlank()) {
+                continue;
+            }
+            Document pageEntry = new Document();
+            pageEntry.add(new StringField(FIELD_DOCUMENT_ID, idTerm.text(), Field.Store.YES));
+            pageEntry.add(new StringField(FIELD_KIND, KIND_PAGE, Field.Store.YES));
+            pageEntry.add(new StoredField(FIELD_PAGE, page.getPageNumber()));
+            pageEntry.add(new Field(FIELD_TEXT, page.getText(), PAGE_TEXT_TYPE));
+            entries.add(pageEntry);
+        }
+        writer.updateDocuments(idTerm, entries);
+    }
+
+    private static void addText(Document entry, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            entry.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    // Snippets for the page hits that will be returned, keyed by Lucene doc id
+    private Map<Integer, String> highlightPages(IndexSearcher searcher, Query query,
+                                                List<Map.Entry<Long, RankedDocument>> documents) throws IOException {
+        List<ScoreDoc> pages = documents.stream()
+                .flatMap(entry -> entry.getValue().topPages().stream())
+                .map(page -> page.hit)
+                .sorted(Comparator.comparingInt(hit -> hit.doc))
+                .collect(Collectors.toList());
+        if (pages.isEmpty()) {
+            return Map.of();
+        }
+
+        TopDocs pageDocs = new TopDocs(new TotalHits(pages.size(), TotalHits.Relation.EQUAL_TO),
+                pages.toArray(new ScoreDoc[0]));
+        String[] snippets = highlighter(searcher).highlight(FIELD_TEXT, query, pageDocs, 2);
+
+        Map<Integer, String> byDoc = new LinkedHashMap<>();
+        for (int i = 0; i < pages.size(); i++) {
+            byDoc.put(pages.get(i).doc, snippets[i]);
+        }
+        return byDoc;
+    }
+
+    private UnifiedHighlighter highlighter(IndexSearcher searcher) {
+        return UnifiedHighlighter.builder(searcher, analyzer)
+                .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", " ... ", true))
+                .withMaxLength(100_000)
+                .build();
+    }
+
+    // Hit count and offsets of the query terms on one page, read from the postings
+    private static PageMatch matchPositions(IndexSearcher searcher, int doc, int pageNumber, Set<String> queryTerms)
+            throws IOException {
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+        int leafDoc = doc - leaf.docBase;
+
+        List<int[]> positions = new ArrayList<>();
+        int hitCount = 0;
+        for (String queryTerm : queryTerms) {
+            PostingsEnum postings = leaf.reader().postings(new Term(FIELD_TEXT, queryTerm), PostingsEnum.OFFSETS);
+            if (postings == null || postings.advance(leafDoc) != leafDoc) {
+                continue;
+            }
+            int frequency = postings.freq();
+            hitCount += frequency;
+            for (int i = 0; i < frequency; i++) {
+                postings.nextPosition();
+                positions.add(new int[]{postings.startOffset(), postings.endOffset()});
+            }
+        }
+        positions.sort(Comparator.comparingInt(position -> position[0]));
+        if (positions.size() > MAX_POSITIONS_PER_PAGE) {
+            positions = new ArrayList<>(positions.subList(0, MAX_POSITIONS_PER_PAGE));
+        }
+        return new PageMatch(pageNumber, hitCount, positions, null);
+    }
+
+    private IndexSearcher acquireSearcher() {
+        try {
+            return searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index is not available", e);
+        }
+    }
+
+    private void releaseSearcher(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Could not release index searcher: {}", e.getMessage());
+        }
+    }
+
+    private static final class RankedDocument {
+        private float metadataScore;
+        private final List<RankedPage> pages = new ArrayList<>();
+
+        private void addPage(ScoreDoc hit, int pageNumber) {
+            pages.add(new RankedPage(hit, pageNumber));
+        }
+
+        // Candidates arrive best first, so the first page is the best one
+        private float score() {
+            float score = metadataScore;
+            for (int i = 0; i < pages.size(); i++) {
+                score += i == 0 ? pages.get(i).hit.score : pages.get(i).hit.score * 0.1f;
+            }
+            return score;
+        }
+
+        private List<RankedPage> topPages() {
+            return pages.subList(0, Math.min(pages.size(), PAGE_HITS_PER_DOCUMENT));
+        }
+    }
+
+    private static final class RankedPage {
+        private final ScoreDoc hit;
+        private final int pageNumber;
+
+        private RankedPage(ScoreDoc hit, int pageNumber) {
+            this.hit = hit;
+            this.pageNumber = pageNumber;
+        }
+    }
+}
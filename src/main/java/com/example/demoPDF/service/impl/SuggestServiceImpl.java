@@ -0,0 +1,326 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.PdfDocumentSummaryDto;
+import com.example.demoPDF.dto.SuggestIndexStats;
+import com.example.demoPDF.dto.Suggestion;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.example.demoPDF.service.SuggestService;
+import com.example.demoPDF.util.PrefixTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Type-ahead completions from one prefix trie per field, built from the active documents
+ * once the application is ready and kept current from PdfDocumentEvents. Each distinct
+ * value (case-insensitive) is one entry holding its document count and newest upload, and
+ * is scored under both rankings so either can be served from the same trie. Nothing here
+ * touches the database on the request path.
+ */
+@Service
+@Slf4j
+public class SuggestServiceImpl implements SuggestService {
+
+    private static final int BUILD_BATCH_SIZE = 1000;
+    private static final int BY_COUNT = 0;
+    private static final int BY_RECENCY = 1;
+    // Upload times are scored as seconds since 2000-01-01 UTC in 32 bits
+    private static final long RECENCY_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+    private enum Field {
+        TITLE("title", PdfDocumentSummaryDto::getTitle),
+        PRODUCT_CODE("productCode", PdfDocumentSummaryDto::getProductCode),
+        EDITION("edition", PdfDocumentSummaryDto::getEdition);
+
+        private final String parameter;
+        private final Function<PdfDocumentSummaryDto, String> getter;
+
+        Field(String parameter, Function<PdfDocumentSummaryDto, String> getter) {
+            this.parameter = parameter;
+            this.getter = getter;
+        }
+    }
+
+    private final PdfDocumentRepository repository;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    private final Map<Field, PrefixTrie<Term>> tries = new EnumMap<>(Field.class);
+    private final Map<Field, Map<String, Term>> terms = new EnumMap<>(Field.class);
+    // What each document contributed, so an update or delete can take it back out
+    private final Map<Long, DocumentTerms> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+    private volatile long buildMillis;
+
+    public SuggestServiceImpl(PdfDocumentRepository repository,
+                              @Value("${app.suggest.default-limit:10}") int defaultLimit,
+                              @Value("${app.suggest.max-limit:50}") int maxLimit) {
+        this.repository = repository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        for (Field field : Field.values()) {
+            tries.put(field, new PrefixTrie<>(2));
+            terms.put(field, new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        building = true;
+        long afterId = 0;
+        List<PdfDocumentSummaryDto> batch;
+        do {
+            batch = repository.findSummaryBatchAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (PdfDocumentSummaryDto summary : batch) {
+                    removeDocument(summary.getId());
+                    addDocument(summary);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        ready = true;
+        building = false;
+        for (Long id : changedDuringBuild) {
+            refresh(id);
+        }
+        changedDuringBuild.clear();
+        buildMillis = System.currentTimeMillis() - started;
+
+        SuggestIndexStats stats = getStats();
+        log.info("Suggest index built: {} entries from {} documents, ~{} KB in {} ms", stats.getEntries(),
+                stats.getDocuments(), stats.getEstimatedBytes() / 1024, buildMillis);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEvent(PdfDocumentEvent event) {
+        if (building) {
+            changedDuringBuild.add(event.getDocumentId());
+        }
+        if (ready) {
+            refresh(event.getDocumentId());
+        }
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, String field, String rank, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Prefix must not be empty");
+        }
+        int ranking = parseRank(rank);
+        List<Field> fields = parseFields(field);
+        int resultLimit = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        String key = prefix.stripLeading().toLowerCase(Locale.ROOT);
+
+        List<Term> matches = new ArrayList<>();
+        List<Suggestion> suggestions = new ArrayList<>(resultLimit);
+        lock.readLock().lock();
+        try {
+            for (Field candidate : fields) {
+                matches.addAll(tries.get(candidate).top(key, resultLimit, ranking));
+            }
+            if (fields.size() > 1) {
+                matches.sort(Comparator.comparingLong((Term term) -> term.score(ranking)).reversed());
+            }
+            for (Term term : matches.subList(0, Math.min(resultLimit, matches.size()))) {
+                suggestions.add(new Suggestion(term.display, term.field.parameter, term.count, term.lastUploaded));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    @Override
+    public SuggestIndexStats getStats() {
+        lock.readLock().lock();
+        try {
+            long entries = 0;
+            long nodes = 0;
+            long bytes = 0;
+            for (Field field : Field.values()) {
+                PrefixTrie<Term> trie = tries.get(field);
+                entries += trie.size();
+                nodes += trie.nodeCount();
+                bytes += trie.estimatedBytes();
+                for (Term term : terms.get(field).values()) {
+                    // Term, its display string (and key, when lower-casing made a copy), and its HashMap node
+                    bytes += 32 + 40 + term.display.length() + 40;
+                    if (term.key != term.display) {
+                        bytes += 40 + term.key.length();
+                    }
+                }
+            }
+            // HashMap node, boxed id, DocumentTerms, its key array and upload time per document
+            bytes += documents.size() * (40L + 16 + 24 + 32 + 72);
+            long perHundredThousand = entries > 0 ? bytes * 100_000 / entries : 0;
+            return new SuggestIndexStats(entries, nodes, documents.size(), bytes, perHundredThousand, buildMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void refresh(Long id) {
+        PdfDocumentSummaryDto summary = repository.findActiveSummary(id).orElse(null);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            if (summary != null) {
+                addDocument(summary);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+    private void addDocument(PdfDocumentSummaryDto summary) {
+        String[] keys = new String[Field.values().length];
+        for (Field field : Field.values()) {
+            String value = field.getter.apply(summary);
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            String display = value.strip();
+            String key = display.toLowerCase(Locale.ROOT);
+            Term term = terms.get(field).computeIfAbsent(key, k -> new Term(field, k, display));
+            term.count++;
+            if (term.lastUploaded == null
+                    || (summary.getUploadDate() != null && summary.getUploadDate().isAfter(term.lastUploaded))) {
+                term.lastUploaded = summary.getUploadDate();
+            }
+            tries.get(field).put(term.key, term, term.score(BY_COUNT), term.score(BY_RECENCY));
+            keys[field.ordinal()] = term.key;
+        }
+        documents.put(summary.getId(), new DocumentTerms(keys, summary.getUploadDate()));
+    }
+
+    private void removeDocument(Long id) {
+        DocumentTerms previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (Field field : Field.values()) {
+            String key = previous.keys[field.ordinal()];
+            Term term = key != null ? terms.get(field).get(key) : null;
+            if (term == null) {
+                continue;
+            }
+            term.count--;
+            if (term.count <= 0) {
+                terms.get(field).remove(key);
+                tries.get(field).remove(key);
+                continue;
+            }
+            if (previous.uploadDate != null && previous.uploadDate.equals(term.lastUploaded)) {
+                // The newest document for this value went away; rare enough to find the next one by scanning
+                term.lastUploaded = newestUpload(field, key);
+            }
+            tries.get(field).put(key, term, term.score(BY_COUNT), term.score(BY_RECENCY));
+        }
+    }
+
+    private LocalDateTime newestUpload(Field field, String key) {
+        LocalDateTime newest = null;
+        for (DocumentTerms document : documents.values()) {
+            if (key.equals(document.keys[field.ordinal()]) && document.uploadDate != null
+                    && (newest == null || document.uploadDate.isAfter(newest))) {
+                newest = document.uploadDate;
+            }
+        }
+        return newest;
+    }
+
+    private static int parseRank(String rank) {
+        if (rank == null || rank.isBlank() || rank.equalsIgnoreCase("count")) {
+            return BY_COUNT;
+        }
+        if (rank.equalsIgnoreCase("recent")) {
+            return BY_RECENCY;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "rank must be 'count' or 'recent'");
+    }
+
+    private static List<Field> parseFields(String field) {
+        if (field == null || field.isBlank()) {
+            return List.of(Field.values());
+        }
+        for (Field candidate : Field.values()) {
+            if (candidate.parameter.equalsIgnoreCase(field)) {
+                return List.of(candidate);
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "field must be one of title, productCode or edition");
+    }
+
+    private static final class Term {
+        private final Field field;
+        private final String key;
+        private final String display;
+        private int count;
+        private LocalDateTime lastUploaded;
+
+        private Term(Field field, String key, String display) {
+            this.field = field;
+            this.key = key;
+            this.display = display;
+        }
+
+        /**
+         * Both rankings packed into one long each so ties on the first key are broken by the
+         * second: count then recency, or recency then count
+         */
+        private long score(int ranking) {
+            long recency = 0;
+            if (lastUploaded != null) {
+                recency = Math.max(0, Math.min(0xFFFF_FFFFL,
+                        lastUploaded.toEpochSecond(ZoneOffset.UTC) - RECENCY_EPOCH));
+            }
+            long documentCount = Math.min(count, Integer.MAX_VALUE);
+            return ranking == BY_COUNT ? documentCount << 32 | recency : recency << 31 | documentCount;
+        }
+    }
+
+    private static final class DocumentTerms {
+        private final String[] keys;
+        private final LocalDateTime uploadDate;
+
+        private DocumentTerms(String[] keys, LocalDateTime uploadDate) {
+            this.keys = keys;
+            this.uploadDate = uploadDate;
+        }
+    }
+}
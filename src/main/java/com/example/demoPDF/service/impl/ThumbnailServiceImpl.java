@@ -0,0 +1,337 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.PageThumbnail;
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.event.PdfDocumentEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import com.example.demoPDF.service.FileStorageService;
+import com.example.demoPDF.service.PdfDocumentCache;
+import com.example.demoPDF.service.ThumbnailService;
+import com.example.demoPDF.util.PdfUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Page thumbnails rendered off the request path. When a document is created its first
+ * app.pdf.thumbnail.pages pages are rendered on the thumbnail pool; the pages are split
+ * across workers and every worker opens its own PDDocument, since PDFBox documents are
+ * not thread-safe. PNGs are written under app.pdf.thumbnail.dir by content hash and
+ * served through a byte-bounded in-memory LRU in front of a byte-bounded disk cache.
+ * A document that fails to render is not retried for app.pdf.thumbnail.failure-retry-ms,
+ * or until it is updated or deleted.
+ * JDK ImageIO has no WebP encoder, so images are stored as maximally compressed PNG.
+ */
+@Service
+@Slf4j
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private final PdfDocumentRepository repository;
+    private final PdfDocumentCache documentCache;
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolTaskExecutor thumbnailExecutor;
+    private final Path thumbnailLocation;
+    private final boolean enabled;
+    private final int pagesPerDocument;
+    private final int dpi;
+    private final long memoryMaxBytes;
+    private final long diskMaxBytes;
+    private final long scratchMemoryBytes;
+    private final long failureRetryMs;
+
+    // Access-ordered, so iteration starts at the least recently used image
+    private final LinkedHashMap<String, byte[]> memoryCache = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    private final Map<String, Long> lastServed = new ConcurrentHashMap<>();
+    private final Set<String> rendering = ConcurrentHashMap.newKeySet();
+    // Cache key -> time before which rendering is not retried
+    private final Map<String, Long> failedUntil = new ConcurrentHashMap<>();
+
+    public ThumbnailServiceImpl(
+            PdfDocumentRepository repository,
+            PdfDocumentCache documentCache,
+            FileStorageService fileStorageService,
+            @Qualifier("thumbnailExecutor") ThreadPoolTaskExecutor thumbnailExecutor,
+            @Value("${app.pdf.thumbnail.dir:${app.upload.dir}/thumbnails}") String thumbnailDir,
+            @Value("${app.pdf.thumbnail.enabled:true}") boolean enabled,
+            @Value("${app.pdf.thumbnail.pages:3}") int pagesPerDocument,
+            @Value("${app.pdf.thumbnail.dpi:48}") int dpi,
+            @Value("${app.pdf.thumbnail.memory-cache-bytes:33554432}") long memoryMaxBytes,
+            @Value("${app.pdf.thumbnail.disk-max-bytes:536870912}") long diskMaxBytes,
+            @Value("${app.pdf.thumbnail.failure-retry-ms:600000}") long failureRetryMs,
+            @Value("${app.pdf.scratch-memory-bytes:" + PdfUtils.DEFAULT_SCRATCH_MEMORY_BYTES + "}") long scratchMemoryBytes) {
+        this.repository = repository;
+        this.documentCache = documentCache;
+        this.fileStorageService = fileStorageService;
+        this.thumbnailExecutor = thumbnailExecutor;
+        this.thumbnailLocation = Paths.get(thumbnailDir).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.pagesPerDocument = pagesPerDocument;
+        this.dpi = dpi;
+        this.memoryMaxBytes = memoryMaxBytes;
+        this.diskMaxBytes = diskMaxBytes;
+        this.scratchMemoryBytes = scratchMemoryBytes;
+        this.failureRetryMs = failureRetryMs;
+    }
+
+    @PostConstruct
+    public void initThumbnails() {
+        try {
+            Files.createDirectories(thumbnailLocation);
+            log.info("Thumbnail location initialized: {}", thumbnailLocation);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create thumbnail directory " + thumbnailLocation, e);
+        }
+    }
+
+    // Reads the repository, not the cache: the cache may not have seen this event yet, and
+    // the failure entries of deleted documents have to be cleared too
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEvent(PdfDocumentEvent event) {
+        if (enabled && event.getType() == PdfDocumentEvent.Type.CREATED) {
+            repository.findByIdAndIsActiveTrue(event.getDocumentId()).ifPresent(this::scheduleRendering);
+        } else if (!failedUntil.isEmpty()) {
+            // An updated document gets a fresh attempt; a deleted one no longer needs its entry
+            repository.findById(event.getDocumentId()).ifPresent(document -> failedUntil.remove(cacheKey(document)));
+        }
+    }
+
+    @Override
+    public Optional<PageThumbnail> getThumbnail(Long documentId, int page) {
+        PdfDocument document = documentCache.findActive(documentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Document not found with ID: " + documentId));
+        if (page < 1 || page > pagesPerDocument
+                || (document.getPageCount() != null && document.getPageCount() > 0 && page > document.getPageCount())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No thumbnail for page " + page + " (thumbnails cover the first " + pagesPerDocument + " pages)");
+        }
+
+        String key = cacheKey(document);
+        String entry = entryName(key, page);
+        String etag = "\"" + key + "-p" + page + "-" + dpi + "\"";
+
+        byte[] image = memoryGet(entry);
+        if (image == null) {
+            Path file = thumbnailLocation.resolve(entry);
+            try {
+                image = Files.readAllBytes(file);
+                memoryPut(entry, image);
+            } catch (IOException e) {
+                // Not on disk yet (legacy document, still queued, or evicted)
+                if (hasFailed(key)) {
+                    throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                            "Pages of this document cannot be rendered");
+                }
+                scheduleRendering(document);
+                return Optional.empty();
+            }
+        }
+        lastServed.put(entry, System.currentTimeMillis());
+        return Optional.of(new PageThumbnail(image, etag));
+    }
+
+    /**
+     * Keeps the disk cache within app.pdf.thumbnail.disk-max-bytes, least recently served first
+     */
+    @Scheduled(fixedDelayString = "${app.pdf.thumbnail.cleanup-interval-ms:600000}")
+    public void trimDiskCache() {
+        long now = System.currentTimeMillis();
+        failedUntil.values().removeIf(until -> until <= now);
+
+        List<Path> files = new ArrayList<>();
+        long totalBytes = 0;
+        try (Stream<Path> walk = Files.walk(thumbnailLocation, 2)) {
+            for (Path file : (Iterable<Path>) walk::iterator) {
+                if (file.getFileName().toString().endsWith(".png")) {
+                    files.add(file);
+                    totalBytes += Files.size(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan thumbnail cache {}: {}", thumbnailLocation, e.getMessage());
+            return;
+        }
+        if (totalBytes <= diskMaxBytes) {
+            return;
+        }
+
+        files.sort(Comparator.comparingLong(this::lastServedMillis));
+        int evicted = 0;
+        for (Path file : files) {
+            if (totalBytes <= diskMaxBytes) {
+                break;
+            }
+            try {
+                long size = Files.size(file);
+                Files.deleteIfExists(file);
+                lastServed.remove(thumbnailLocation.relativize(file).toString().replace('\\', '/'));
+                totalBytes -= size;
+                evicted++;
+            } catch (IOException e) {
+                log.warn("Could not evict thumbnail {}: {}", file, e.getMessage());
+            }
+        }
+        log.info("Thumbnail cache trimmed: {} images evicted, {} bytes remain", evicted, totalBytes);
+    }
+
+    private void scheduleRendering(PdfDocument document) {
+        String key = cacheKey(document);
+        if (hasFailed(key) || !rendering.add(key)) {
+            return;
+        }
+
+        int pages = document.getPageCount() != null && document.getPageCount() > 0
+                ? Math.min(pagesPerDocument, document.getPageCount())
+                : pagesPerDocument;
+        int workers = Math.max(1, Math.min(thumbnailExecutor.getMaxPoolSize(), pages));
+        Path source = fileStorageService.resolvePath(document.getFilePath());
+        AtomicInteger remaining = new AtomicInteger(workers);
+
+        // Worker k renders pages k+1, k+1+workers, ... from its own PDDocument
+        for (int worker = 0; worker < workers; worker++) {
+            List<Integer> assigned = new ArrayList<>();
+            for (int page = worker + 1; page <= pages; page += workers) {
+                assigned.add(page);
+            }
+            try {
+                thumbnailExecutor.execute(() -> {
+                    try {
+                        renderPages(source, key, assigned);
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            rendering.remove(key);
+                        }
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                log.warn("Thumbnail queue full, pages {} of document {} not rendered", assigned, document.getId());
+                if (remaining.decrementAndGet() == 0) {
+                    rendering.remove(key);
+                }
+            }
+        }
+    }
+
+    private void renderPages(Path source, String key, List<Integer> pages) {
+        long started = System.currentTimeMillis();
+        try (PDDocument document = PdfUtils.loadDocument(source, scratchMemoryBytes)) {
+            PDFRenderer renderer = new PDFRenderer(document);
+            Files.createDirectories(thumbnailLocation.resolve(key));
+            for (int page : pages) {
+                if (page > document.getNumberOfPages()) {
+                    break;
+                }
+                Path target = thumbnailLocation.resolve(entryName(key, page));
+                if (Files.exists(target)) {
+                    continue;
+                }
+                BufferedImage image = renderer.renderImageWithDPI(page - 1, dpi, ImageType.RGB);
+                writePng(image, target);
+            }
+            log.debug("Rendered thumbnails {} of {} in {} ms", pages, key, System.currentTimeMillis() - started);
+        } catch (IOException | RuntimeException e) {
+            failedUntil.put(key, System.currentTimeMillis() + failureRetryMs);
+            log.warn("Could not render thumbnails for {}, retrying after {} ms: {}", source, failureRetryMs, e.getMessage());
+        }
+    }
+
+    private boolean hasFailed(String key) {
+        Long until = failedUntil.get(key);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private static void writePng(BufferedImage image, Path target) throws IOException {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(partial.toFile())) {
+            ImageWriteParam parameters = writer.getDefaultWriteParam();
+            // Quality 0 selects the strongest deflate level; thumbnails are written once and read often
+            parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parameters.setCompressionQuality(0.0f);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), parameters);
+        } finally {
+            writer.dispose();
+        }
+        try {
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private byte[] memoryGet(String entry) {
+        synchronized (memoryCache) {
+            return memoryCache.get(entry);
+        }
+    }
+
+    private void memoryPut(String entry, byte[] image) {
+        synchronized (memoryCache) {
+            byte[] previous = memoryCache.put(entry, image);
+            memoryBytes += image.length - (previous != null ? previous.length : 0);
+            Iterator<Map.Entry<String, byte[]>> eldest = memoryCache.entrySet().iterator();
+            while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private long lastServedMillis(Path file) {
+        Long served = lastServed.get(thumbnailLocation.relativize(file).toString().replace('\\', '/'));
+        if (served != null) {
+            return served;
+        }
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private String entryName(String key, int page) {
+        return key + "/p" + page + "_" + dpi + ".png";
+    }
+
+    // Content hash so identical uploads share images; legacy documents fall back to their id
+    private static String cacheKey(PdfDocument document) {
+        return document.getContentHash() != null ? document.getContentHash() : "doc" + document.getId();
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.StoredFile;
+import com.example.demoPDF.service.FileStorageService;
+import com.example.demoPDF.util.HashUtils;
+import com.example.demoPDF.util.StoredFileNames;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Two storage tiers: uploads are written to and acknowledged from fast local disk, and a
+ * background replicator copies them to the network share (app.upload.dir) with retries.
+ * Reads prefer the local copy and fall back to the share. The local tier is capped at
+ * app.storage.local.max-bytes; only files already replicated are evicted, least recently
+ * used first. Resolving a path leases the local copy for app.storage.local.read-lease-ms so
+ * eviction does not unlink it under a reader that has not opened it yet.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "tiered")
+@Slf4j
+public class TieredFileStorageServiceImpl implements FileStorageService {
+
+    private final Path localLocation;
+    private final Path remoteLocation;
+    private final long localMaxBytes;
+    private final long readLeaseMs;
+    private final long initialRetryDelayMs;
+    private final long maxRetryDelayMs;
+    private final int maxAttempts;
+    private final ScheduledExecutorService replicator;
+
+    // Local tier contents in access order (eldest first); guarded by itself
+    private final LinkedHashMap<String, LocalEntry> localEntries = new LinkedHashMap<>(256, 0.75f, true);
+    private long localBytes;
+
+    public TieredFileStorageServiceImpl(
+            @Value("${app.upload.dir:./uploads/pdfs}") String uploadDir,
+            @Value("${app.storage.local.dir:./uploads/local}") String localDir,
+            @Value("${app.storage.local.max-bytes:10737418240}") long localMaxBytes,
+            @Value("${app.storage.local.read-lease-ms:600000}") long readLeaseMs,
+            @Value("${app.storage.replication.threads:2}") int replicationThreads,
+            @Value("${app.storage.replication.initial-retry-delay-ms:1000}") long initialRetryDelayMs,
+            @Value("${app.storage.replication.max-retry-delay-ms:300000}") long maxRetryDelayMs,
+            @Value("${app.storage.replication.max-attempts:30}") int maxAttempts) {
+        this.remoteLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.localLocation = Paths.get(localDir).toAbsolutePath().normalize();
+        this.localMaxBytes = localMaxBytes;
+        this.readLeaseMs = readLeaseMs;
+        this.initialRetryDelayMs = initialRetryDelayMs;
+        this.maxRetryDelayMs = maxRetryDelayMs;
+        this.maxAttempts = maxAttempts;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.replicator = Executors.newScheduledThreadPool(replicationThreads, runnable -> {
+            Thread thread = new Thread(runnable, "storage-replicator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void initStorage() {
+        try {
+            Files.createDirectories(this.localLocation);
+            log.info("Local storage tier initialized: {} (cap {} bytes)", this.localLocation, localMaxBytes);
+        } catch (Exception e) {
+            log.error("Could not create the directory where the uploaded files will be stored", e);
+            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", e);
+        }
+
+        try {
+            Files.createDirectories(this.remoteLocation);
+        } catch (Exception e) {
+            // The share being down must not stop uploads; replication retries until it is back
+            log.warn("Remote storage tier {} is not reachable yet: {}", this.remoteLocation, e.getMessage());
+        }
+
+        recoverLocalTier();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replicator.shutdownNow();
+    }
+
+    @Override
+    public StoredFile storeFile(InputStream content, String originalFilename) {
+        String fileName = StringUtils.cleanPath(originalFilename);
+
+        try {
+            if (fileName.contains("..")) {
+                throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
+            }
+
+            String relativePath = StoredFileNames.uniqueFileName(fileName);
+
+            Path localFile = this.localLocation.resolve(relativePath);
+            MessageDigest digest = HashUtils.newContentDigest();
+            long bytesWritten;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                bytesWritten = Files.copy(in, localFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            LocalEntry entry = new LocalEntry(bytesWritten);
+            synchronized (localEntries) {
+                localEntries.put(relativePath, entry);
+                localBytes += bytesWritten;
+            }
+            scheduleReplication(relativePath, entry, 0);
+            evictIfOverCapacity();
+
+            log.debug("File stored on local tier at: {} ({} bytes)", relativePath, bytesWritten);
+            return new StoredFile(relativePath, bytesWritten, HashUtils.toHex(digest));
+
+        } catch (IOException ex) {
+            log.error("Could not store file {}. Please try again!", fileName, ex);
+            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+        }
+    }
+
+    @Override
+    public Resource loadFileAsResource(String filePath) {
+        try {
+            Resource resource = new UrlResource(resolvePath(filePath).toUri());
+
+            if (resource.exists()) {
+                return resource;
+            } else {
+                throw new RuntimeException("File not found " + filePath);
+            }
+        } catch (MalformedURLException ex) {
+            log.error("File not found {}", filePath, ex);
+            throw new RuntimeException("File not found " + filePath, ex);
+        }
+    }
+
+    @Override
+    public Path resolvePath(String filePath) {
+        synchronized (localEntries) {
+            // get() also refreshes the entry's position in the LRU order
+            LocalEntry entry = localEntries.get(filePath);
+            if (entry != null) {
+                // Callers open the path later (streaming, export, rendering), so keep it on disk for a while
+                entry.leasedUntil = System.currentTimeMillis() + readLeaseMs;
+                return this.localLocation.resolve(filePath).normalize();
+            }
+        }
+        return this.remoteLocation.resolve(filePath).normalize();
+    }
+
+    @Override
+    public void deleteFile(String filePath) {
+        LocalEntry entry;
+        synchronized (localEntries) {
+            entry = localEntries.remove(filePath);
+            if (entry != null) {
+                localBytes -= entry.size;
+                entry.deleted = true;
+            }
+        }
+
+        try {
+            Files.deleteIfExists(this.localLocation.resolve(filePath).normalize());
+            Files.deleteIfExists(this.remoteLocation.resolve(filePath).normalize());
+            log.debug("File deleted from both tiers: {}", filePath);
+        } catch (IOException ex) {
+            log.error("Could not delete file {}", filePath, ex);
+            throw new RuntimeException("Could not delete file " + filePath, ex);
+        }
+    }
+
+    private void scheduleReplication(String relativePath, LocalEntry entry, long delayMs) {
+        replicator.schedule(() -> replicate(relativePath, entry), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void replicate(String relativePath, LocalEntry entry) {
+        if (entry.deleted) {
+            return;
+        }
+
+        Path source = this.localLocation.resolve(relativePath);
+        Path target = this.remoteLocation.resolve(relativePath);
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            // Copy under a temporary name so readers on the share never see a half-written file
+            Files.createDirectories(target.getParent());
+            Files.copy(source, partial, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // deleteFile sets the flag before removing the remote copy, so a delete that raced the move is seen here
+            if (entry.deleted) {
+                Files.deleteIfExists(target);
+                log.debug("Dropped remote copy of {}, deleted during replication", relativePath);
+                return;
+            }
+
+            entry.replicated = true;
+            log.debug("Replicated {} to remote tier after {} attempt(s)", relativePath, entry.attempts + 1);
+            evictIfOverCapacity();
+
+        } catch (IOException | RuntimeException e) {
+            deletePartial(partial);
+            if (entry.deleted) {
+                return;
+            }
+            entry.attempts++;
+            if (entry.attempts >= maxAttempts) {
+                // The file stays on the local tier (it is never evicted unreplicated) and is re-queued on restart
+                log.error("Replication of {} failed {} times, giving up until restart: {}",
+                        relativePath, entry.attempts, e.getMessage());
+                return;
+            }
+            long delay = Math.min(maxRetryDelayMs, initialRetryDelayMs << Math.min(entry.attempts, 20));
+            log.warn("Replication of {} failed (attempt {}), retrying in {} ms: {}",
+                    relativePath, entry.attempts, delay, e.getMessage());
+            scheduleReplication(relativePath, entry, delay);
+        }
+    }
+
+    private void deletePartial(Path partial) {
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            log.debug("Could not remove partial copy {}: {}", partial, e.getMessage());
+        }
+    }
+
+    private void evictIfOverCapacity() {
+        Map<String, LocalEntry> evicted = new LinkedHashMap<>();
+        synchronized (localEntries) {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<String, LocalEntry>> eldestFirst = localEntries.entrySet().iterator();
+            while (localBytes > localMaxBytes && eldestFirst.hasNext()) {
+                Map.Entry<String, LocalEntry> candidate = eldestFirst.next();
+                if (candidate.getValue().replicated && candidate.getValue().leasedUntil <= now) {
+                    eldestFirst.remove();
+                    localBytes -= candidate.getValue().size;
+                    evicted.put(candidate.getKey(), candidate.getValue());
+                }
+            }
+            if (localBytes > localMaxBytes) {
+                log.warn("Local storage tier over capacity ({} > {} bytes) with unreplicated or leased files pending",
+                        localBytes, localMaxBytes);
+            }
+        }
+
+        for (Map.Entry<String, LocalEntry> eviction : evicted.entrySet()) {
+            String relativePath = eviction.getKey();
+            try {
+                Files.deleteIfExists(this.localLocation.resolve(relativePath));
+                log.debug("Evicted {} from local tier", relativePath);
+            } catch (IOException e) {
+                // Typically still open by a reader on Windows; keep tracking it so a later pass retries
+                log.warn("Could not evict {} from local tier: {}", relativePath, e.getMessage());
+                synchronized (localEntries) {
+                    if (!eviction.getValue().deleted) {
+                        localEntries.putIfAbsent(relativePath, eviction.getValue());
+                        localBytes += eviction.getValue().size;
+                    }
+                }
+            }
+        }
+    }
+
+    // Rebuild the local index after a restart and re-queue anything the share does not have yet
+    private void recoverLocalTier() {
+        try (Stream<Path> files = Files.list(this.localLocation)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(".part"))
+                    .forEach(file -> {
+                        try {
+                            String relativePath = this.localLocation.relativize(file).toString();
+                            LocalEntry entry = new LocalEntry(Files.size(file));
+                            Path remote = this.remoteLocation.resolve(relativePath);
+                            entry.replicated = Files.exists(remote) && Files.size(remote) == entry.size;
+                            synchronized (localEntries) {
+                                localEntries.put(relativePath, entry);
+                                localBytes += entry.size;
+                            }
+                            if (!entry.replicated) {
+                                scheduleReplication(relativePath, entry, 0);
+                            }
+                        } catch (IOException e) {
+                            log.warn("Could not recover local file {}: {}", file, e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Could not scan local storage tier {}: {}", this.localLocation, e.getMessage());
+        }
+        log.info("Local storage tier holds {} files ({} bytes)", localEntries.size(), localBytes);
+        evictIfOverCapacity();
+    }
+
+    private static class LocalEntry {
+        private final long size;
+        private volatile boolean replicated;
+        private volatile boolean deleted;
+        private volatile long leasedUntil;
+        private int attempts;
+
+        LocalEntry(long size) {
+            this.size = size;
+        }
+    }
+}
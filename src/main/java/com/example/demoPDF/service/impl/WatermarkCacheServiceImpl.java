@@ -0,0 +1,324 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.DocumentContent;
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.WatermarkCacheStats;
+import com.example.demoPDF.service.PdfDocumentService;
+import com.example.demoPDF.service.WatermarkCacheService;
+import com.example.demoPDF.service.WatermarkService;
+import com.example.demoPDF.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache of watermarked downloads. A rendition is keyed by the served bytes (their ETag),
+ * the watermark template and the texts stamped on it, so a recipient downloading the same
+ * document again gets the stored file instead of a new render. The footer comes from
+ * app.pdf.watermark.footer; only a footer with {date} in it (day precision) makes copies
+ * expire at midnight, since a copy stamped with yesterday's date would be wrong. Concurrent
+ * requests for a rendition that is still being written wait for that one render. The cache
+ * is kept within its byte budget by evicting the least recently served renditions first,
+ * with each repeat download buying an entry some extra time so one-off copies go before the
+ * ones people keep coming back to.
+ */
+@Service
+@Slf4j
+public class WatermarkCacheServiceImpl implements WatermarkCacheService {
+
+    private static final String EXTENSION = ".pdf";
+    private static final long REPEAT_HIT_BONUS_MS = 15 * 60 * 1000L;
+    private static final int MAX_REPEAT_HITS_COUNTED = 8;
+
+    private final PdfDocumentService pdfDocumentService;
+    private final WatermarkService watermarkService;
+    private final Path cacheLocation;
+    private final long cacheMaxBytes;
+    private final String footerTemplate;
+
+    private final Map<String, CachedRendition> renditions = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public WatermarkCacheServiceImpl(
+            PdfDocumentService pdfDocumentService,
+            WatermarkService watermarkService,
+            @Value("${app.pdf.watermark.cache-dir:${java.io.tmpdir}/pdf-watermarks}") String cacheDir,
+            @Value("${app.pdf.watermark.cache-max-bytes:1073741824}") long cacheMaxBytes,
+            @Value("${app.pdf.watermark.footer:Downloaded by {recipient} on {date}}") String footerTemplate) {
+        this.pdfDocumentService = pdfDocumentService;
+        this.watermarkService = watermarkService;
+        this.cacheLocation = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.cacheMaxBytes = cacheMaxBytes;
+        this.footerTemplate = footerTemplate;
+    }
+
+    @PostConstruct
+    public void initCache() {
+        try {
+            Files.createDirectories(cacheLocation);
+            // Renditions from a previous run are still valid; half-written ones are not
+            try (Stream<Path> files = Files.list(cacheLocation)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".part")) {
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(EXTENSION)) {
+                        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                        String key = name.substring(0, name.length() - EXTENSION.length());
+                        renditions.put(key, new CachedRendition(attributes.size(),
+                                attributes.lastModifiedTime().toMillis()));
+                        totalBytes.addAndGet(attributes.size());
+                    }
+                }
+            }
+            log.info("Watermark cache initialized: {} ({} entries, {} bytes)", cacheLocation,
+                    renditions.size(), totalBytes.get());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create watermark cache directory " + cacheLocation, e);
+        }
+        evictToBudget(null);
+    }
+
+    @Override
+    public DocumentContent getWatermarked(Long documentId, String recipient) {
+        PdfDocumentDto document = pdfDocumentService.getDocumentById(documentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Document not found with ID: " + documentId));
+        DocumentContent source = pdfDocumentService.getDocumentContent(documentId, false)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Document not found with ID: " + documentId));
+
+        String watermarkText = "CONFIDENTIAL - " + document.getTitle();
+        String footerText = footerText(recipient);
+        String key = cacheKey(source.getEtag(), watermarkText, footerText);
+
+        Path rendition = lookup(key);
+        if (rendition != null) {
+            hits.incrementAndGet();
+        } else {
+            rendition = renderOnce(key, source.getPath(), watermarkText, footerText);
+        }
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(rendition, BasicFileAttributes.class);
+            return new DocumentContent(rendition, "watermarked_" + document.getFilename(),
+                    MediaType.APPLICATION_PDF_VALUE, attributes.size(),
+                    attributes.lastModifiedTime().toInstant(), "\"" + key + "\"");
+        } catch (IOException e) {
+            // Evicted between the render and this read; the next request renders it again
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Watermarked copy was evicted, please retry");
+        }
+    }
+
+    @Override
+    public WatermarkCacheStats getStats() {
+        return new WatermarkCacheStats(hits.get(), misses.get(), evictions.get(), renditions.size(),
+                totalBytes.get(), cacheMaxBytes, inFlight.size());
+    }
+
+    // The stored rendition for key, or null when it has to be rendered
+    private Path lookup(String key) {
+        CachedRendition cached = renditions.get(key);
+        if (cached == null) {
+            return null;
+        }
+        Path file = renditionPath(key);
+        if (!Files.exists(file)) {
+            forget(key);
+            return null;
+        }
+        cached.touch();
+        return file;
+    }
+
+    /**
+     * Only the first request for a key renders; identical requests arriving meanwhile wait on
+     * its future and share the result, or its failure
+     */
+    private Path renderOnce(String key, Path source, String watermarkText, String footerText) {
+        CompletableFuture<Path> pending = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            hits.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            // Another request may have finished this rendition just before we registered
+            Path file = lookup(key);
+            if (file != null) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                file = render(key, source, watermarkText, footerText);
+            }
+            pending.complete(file);
+            return file;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private Path render(String key, Path source, String watermarkText, String footerText) {
+        long started = System.currentTimeMillis();
+        Path target = renditionPath(key);
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                watermarkService.writeWatermarked(source, watermarkText, footerText, out);
+            }
+            moveIntoPlace(partial, target);
+            long size = Files.size(target);
+            renditions.put(key, new CachedRendition(size, System.currentTimeMillis()));
+            totalBytes.addAndGet(size);
+            log.info("Rendered watermarked copy {} ({} bytes) in {} ms", target.getFileName(), size,
+                    System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watermark " + source.getFileName() + ": " + e.getMessage(), e);
+        } finally {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                log.warn("Could not delete partial rendition {}: {}", partial, e.getMessage());
+            }
+        }
+        evictToBudget(key);
+        return target;
+    }
+
+    /**
+     * Drop renditions until the cache fits its budget. keep is the rendition about to be
+     * served and renditions still being written are skipped; a file that cannot be deleted
+     * (open elsewhere on Windows) is left for the next pass.
+     */
+    private synchronized void evictToBudget(String keep) {
+        if (totalBytes.get() <= cacheMaxBytes) {
+            return;
+        }
+        // Snapshot priorities first; they keep changing while downloads are served
+        Map<String, Long> priorities = new HashMap<>();
+        renditions.forEach((key, rendition) -> priorities.put(key, rendition.priority()));
+        List<String> candidates = new ArrayList<>(priorities.keySet());
+        candidates.sort(Comparator.comparingLong(priorities::get));
+
+        int evicted = 0;
+        for (String key : candidates) {
+            if (totalBytes.get() <= cacheMaxBytes) {
+                break;
+            }
+            if (key.equals(keep) || inFlight.containsKey(key)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(renditionPath(key));
+                forget(key);
+                evicted++;
+            } catch (IOException e) {
+                log.warn("Could not evict watermarked copy {}: {}", key, e.getMessage());
+            }
+        }
+        evictions.addAndGet(evicted);
+        log.info("Watermark cache trimmed: {} renditions evicted, {} bytes remain", evicted, totalBytes.get());
+    }
+
+    private void forget(String key) {
+        CachedRendition removed = renditions.remove(key);
+        if (removed != null) {
+            totalBytes.addAndGet(-removed.size);
+        }
+    }
+
+    // The date is only looked up (and so only part of the key) when the template stamps it
+    private String footerText(String recipient) {
+        String footer = footerTemplate.replace("{recipient}", recipient);
+        return footer.contains("{date}") ? footer.replace("{date}", LocalDate.now().toString()) : footer;
+    }
+
+    private String cacheKey(String contentEtag, String watermarkText, String footerText) {
+        MessageDigest digest = HashUtils.newContentDigest();
+        for (String part : new String[]{contentEtag, watermarkService.templateFingerprint(), watermarkText, footerText}) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HashUtils.toHex(digest);
+    }
+
+    private Path renditionPath(String key) {
+        return cacheLocation.resolve(key + EXTENSION);
+    }
+
+    private static Path await(CompletableFuture<Path> render) {
+        try {
+            return render.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void moveIntoPlace(Path partial, Path target) throws IOException {
+        try {
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static final class CachedRendition {
+        private final long size;
+        private final AtomicInteger hits = new AtomicInteger();
+        private volatile long lastServed;
+
+        private CachedRendition(long size, long lastServed) {
+            this.size = size;
+            this.lastServed = lastServed;
+        }
+
+        private void touch() {
+            hits.incrementAndGet();
+            lastServed = System.currentTimeMillis();
+        }
+
+        // Recency, plus a bonus for each repeat download so frequently used copies outlive one-offs
+        private long priority() {
+            return lastServed + Math.min(hits.get(), MAX_REPEAT_HITS_COUNTED) * REPEAT_HIT_BONUS_MS;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demoPDF.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class HashUtils {
+
+    public static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * New digest for the content hash stored with every document
+     */
+    public static MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(CONTENT_HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Lower-case hex form of a finished digest
+     */
+    public static String toHex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demoPDF.util;
+
+import com.example.demoPDF.dto.DocumentContent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves a stored file with single byte-range support (Range/If-Range, 206/416) and
+ * conditional GET (If-None-Match/If-Modified-Since, 304). The body never passes through
+ * a heap buffer of the file's size: Tomcat's sendfile is used when the connector offers it,
+ * otherwise FileChannel.transferTo copies straight into the response stream.
+ */
+@Slf4j
+public class HttpFileSender {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public static void send(DocumentContent content, boolean attachment,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = content.getFileSize();
+        long lastModified = content.getLastModified().toEpochMilli();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        // Sets ETag/Last-Modified and answers 304 (or 412) when the client's copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(content.getEtag(), lastModified)) {
+            return;
+        }
+
+        response.setContentType(content.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(attachment, content.getFilename()));
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, content.getEtag(), lastModified)) {
+            List<HttpRange> ranges = parseRanges(rangeHeader);
+            // Several ranges in one request are answered with the whole file, which RFC 9110 allows
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        try {
+            transfer(content, start, count, request, response);
+        } catch (IOException e) {
+            // Range clients (PDF viewers) routinely drop connections once they have what they need
+            log.debug("Transfer of {} [{}-{}] ended early: {}", content.getPath(), start, end, e.getMessage());
+        }
+    }
+
+    /**
+     * Plain quoted filename for ASCII names (what the frontend parses), RFC 5987 encoding otherwise
+     */
+    public static String contentDisposition(boolean attachment, String filename) {
+        ContentDisposition.Builder builder = ContentDisposition.builder(attachment ? "attachment" : "inline");
+        if (filename != null) {
+            if (StandardCharsets.US_ASCII.newEncoder().canEncode(filename)) {
+                builder.filename(filename);
+            } else {
+                builder.filename(filename, StandardCharsets.UTF_8);
+            }
+        }
+        return builder.build().toString();
+    }
+
+    private static void transfer(DocumentContent content, long start, long count,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the region with sendfile(2) after the servlet returns
+            request.setAttribute(SENDFILE_FILENAME, content.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(content.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new IOException("File shrank while sending: " + content.getPath());
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static List<HttpRange> parseRanges(String rangeHeader) {
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored and the full file is sent
+            log.debug("Ignoring malformed Range header '{}': {}", rangeHeader, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * If-Range only honours a strong ETag or the exact Last-Modified date
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return !etag.startsWith("W/") && ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demoPDF.util;
+
+import com.example.demoPDF.dto.PdfDocumentDto;
+import com.example.demoPDF.dto.PdfInspectionResult;
+import com.example.demoPDF.dto.PdfUploadRequest;
+import com.example.demoPDF.dto.StoredFile;
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.entity.PdfPageText;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PdfDocumentMapper {
+
+    /**
+     * New, unsaved document for a file that has been stored and inspected
+     */
+    public static PdfDocument toEntity(StoredFile storedFile, String originalFilename, String contentType,
+                                       PdfInspectionResult inspection, PdfUploadRequest request) {
+        PdfDocument document = new PdfDocument();
+        document.setTitle(request.getTitle());
+        document.setFilename(originalFilename);
+        document.setFilePath(storedFile.getFilePath());
+        document.setFileSize(storedFile.getFileSize());
+        document.setContentHash(storedFile.getContentHash());
+        document.setPageCount(inspection.getPageCount());
+        document.setPdfInfo(inspection.getInfo());
+        document.setProductCode(request.getProductCode());
+        document.setEdition(request.getEdition());
+        document.setPublicationDate(request.getPublicationDate());
+        document.setNotes(request.getNotes());
+        document.setContentType(contentType);
+        document.setCreatedBy(request.getCreatedBy() != null ? request.getCreatedBy() : "system");
+        document.setIsActive(true);
+        return document;
+    }
+
+    /**
+     * Rows for the per-page text of a saved document (page numbers are 1-based)
+     */
+    public static List<PdfPageText> toPageTexts(Long documentId, List<String> pageTexts) {
+        List<PdfPageText> rows = new ArrayList<>(pageTexts.size());
+        for (int i = 0; i < pageTexts.size(); i++) {
+            rows.add(new PdfPageText(null, documentId, i + 1, pageTexts.get(i)));
+        }
+        return rows;
+    }
+
+    public static PdfDocumentDto toDto(PdfDocument document) {
+        PdfDocumentDto dto = new PdfDocumentDto();
+        dto.setId(document.getId());
+        dto.setTitle(document.getTitle());
+        dto.setFilename(document.getFilename());
+        dto.setFileSize(document.getFileSize());
+        dto.setPageCount(document.getPageCount());
+        dto.setProductCode(document.getProductCode());
+        dto.setEdition(document.getEdition());
+        dto.setPublicationDate(document.getPublicationDate());
+        dto.setNotes(document.getNotes());
+        dto.setContentType(document.getContentType());
+        dto.setUploadDate(document.getUploadDate());
+        dto.setCreatedBy(document.getCreatedBy());
+        dto.setUpdatedDate(document.getUpdatedDate());
+        return dto;
+    }
+}
@@ -0,0 +1,841 @@
+package com.example.demoPDF.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Fast path for page count and a basic sanity check without a full PDFBox load.
+ * The file is memory-mapped and only the header, the cross-reference sections and trailer,
+ * the catalog and the root Pages node are read, decoding an xref or object stream when the
+ * file uses them. Anything the scanner cannot follow (unsupported filters, encrypted object
+ * streams, broken offsets) falls back to PdfUtils.getPageCount. Also reads the
+ * linearization dictionary, which has to sit in the first 1024 bytes.
+ */
+@Slf4j
+public class PdfQuickScanner {
+
+    private static final byte[] HEADER = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STARTXREF = "startxref".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ENDSTREAM = "endstream".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SEARCH_BYTES = 1024;
+    private static final int STARTXREF_SEARCH_BYTES = 2048;
+    private static final int MAX_XREF_SECTIONS = 64;
+    private static final byte[] LINEARIZED = "/Linearized".getBytes(StandardCharsets.US_ASCII);
+    private static final Pattern FILE_LENGTH = Pattern.compile("/L\\s+(\\d+)");
+    private static final Pattern FIRST_PAGE_END = Pattern.compile("/E\\s+(\\d+)");
+
+    /**
+     * Header check on the first bytes of a stream (the stream is consumed)
+     */
+    public static boolean hasPdfHeader(InputStream in) throws IOException {
+        byte[] head = in.readNBytes(HEADER_SEARCH_BYTES);
+        return indexOf(ByteBuffer.wrap(head), HEADER, 0, head.length) >= 0;
+    }
+
+    public static boolean hasPdfHeader(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(HEADER_SEARCH_BYTES, channel.size()));
+            channel.read(head, 0);
+            return indexOf(head, HEADER, 0, head.position()) >= 0;
+        } catch (IOException e) {
+            log.warn("Could not read PDF header of {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    public static ScanResult scan(Path file) {
+        return scan(file, true);
+    }
+
+    /**
+     * Scan a stored file. With fallbackToFullParse a file the fast path cannot handle is
+     * counted by PdfUtils.getPageCount; without it the page count is left at -1.
+     */
+    public static ScanResult scan(Path file, boolean fallbackToFullParse) {
+        ScanResult result;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                result = new ScanResult(true, null, -1, false);
+            } else {
+                result = scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan PDF {}: {}", file, e.getMessage());
+            return new ScanResult(false, null, -1, false);
+        }
+
+        if (result.isPdf() && !result.isFastPath() && fallbackToFullParse) {
+            log.debug("Fast scan not possible for {}, falling back to full parse", file);
+            result = new ScanResult(true, result.getVersion(), PdfUtils.getPageCount(file), false);
+        }
+        return result;
+    }
+
+    static ScanResult scan(ByteBuffer buffer) {
+        int length = buffer.limit();
+        int headerOffset = indexOf(buffer, HEADER, 0, Math.min(length, HEADER_SEARCH_BYTES));
+        if (headerOffset < 0) {
+            return new ScanResult(false, null, -1, false);
+        }
+
+        String version = readVersion(buffer, headerOffset + HEADER.length);
+        try {
+            int pageCount = new Parser(buffer, headerOffset).pageCount();
+            return new ScanResult(true, version, pageCount, pageCount >= 0);
+        } catch (RuntimeException e) {
+            log.debug("Fast PDF scan failed: {}", e.getMessage());
+            return new ScanResult(true, version, -1, false);
+        }
+    }
+
+    /**
+     * Bytes a viewer fetching the file front to back must have before it can render page 1:
+     * the end of the first-page section (/E) of a linearized file, or the whole file otherwise,
+     * since the cross-reference table is at the end. A linearization dictionary whose /L no
+     * longer matches the file size (saved incrementally afterwards) is ignored, as viewers do.
+     */
+    public static long firstPageBytes(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(HEADER_SEARCH_BYTES, size));
+            channel.read(head, 0);
+            int start = indexOf(head, LINEARIZED, 0, head.position());
+            if (start < 0) {
+                return size;
+            }
+            String dictionary = new String(head.array(), start, head.position() - start, StandardCharsets.ISO_8859_1);
+            int end = dictionary.indexOf(">>");
+            if (end >= 0) {
+                dictionary = dictionary.substring(0, end);
+            }
+            Matcher fileLength = FILE_LENGTH.matcher(dictionary);
+            Matcher firstPageEnd = FIRST_PAGE_END.matcher(dictionary);
+            if (!fileLength.find() || !firstPageEnd.find() || Long.parseLong(fileLength.group(1)) != size) {
+                return size;
+            }
+            long firstPage = Long.parseLong(firstPageEnd.group(1));
+            return firstPage > 0 && firstPage <= size ? firstPage : size;
+        }
+    }
+
+    private static String readVersion(ByteBuffer buffer, int pos) {
+        StringBuilder version = new StringBuilder();
+        while (pos < buffer.limit() && version.length() < 4) {
+            char c = (char) buffer.get(pos++);
+            if (!Character.isDigit(c) && c != '.') {
+                break;
+            }
+            version.append(c);
+        }
+        return version.length() > 0 ? version.toString() : null;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] pattern, int from, int to) {
+        outer:
+        for (int i = from; i <= to - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte[] pattern, int from, int to) {
+        outer:
+        for (int i = to - pattern.length; i >= from; i--) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Outcome of a scan. pageCount is -1 when it could not be determined.
+     */
+    public static class ScanResult {
+        private final boolean pdf;
+        private final String version;
+        private final int pageCount;
+        private final boolean fastPath;
+
+        public ScanResult(boolean pdf, String version, int pageCount, boolean fastPath) {
+            this.pdf = pdf;
+            this.version = version;
+            this.pageCount = pageCount;
+            this.fastPath = fastPath;
+        }
+
+        public boolean isPdf() { return pdf; }
+
+        public String getVersion() { return version; }
+
+        public int getPageCount() { return pageCount; }
+
+        public boolean isFastPath() { return fastPath; }
+
+        // A PDF whose page tree could be read, by the fast path or the fallback
+        public boolean isReadable() { return pdf && pageCount > 0; }
+
+        @Override
+        public String toString() {
+            return String.format("ScanResult{pdf=%s, version=%s, pageCount=%d, fastPath=%s}",
+                    pdf, version, pageCount, fastPath);
+        }
+    }
+
+    private static final class Ref {
+        private final int number;
+
+        Ref(int number) {
+            this.number = number;
+        }
+    }
+
+    /**
+     * One cross-reference section. entry returns {type, field2, field3} as in an xref
+     * stream (type 0 free, 1 at byte offset, 2 inside an object stream) or null when the
+     * section does not cover the object.
+     */
+    private interface XrefSection {
+        long[] entry(int objectNumber);
+    }
+
+    /**
+     * Follows trailer -> catalog -> Pages -> Count through classic tables, xref streams
+     * and object streams
+     */
+    private static final class Parser {
+        private final Lexer file;
+        private final int headerOffset;
+        private final List<XrefSection> sections = new ArrayList<>();
+        private final Map<Integer, ObjectStream> objectStreams = new HashMap<>();
+        private int offsetShift;
+        private boolean encrypted;
+
+        Parser(ByteBuffer buffer, int headerOffset) {
+            this.file = new Lexer(buffer);
+            this.headerOffset = headerOffset;
+        }
+
+        int pageCount() {
+            ByteBuffer buffer = file.buffer;
+            int length = buffer.limit();
+            int startxref = lastIndexOf(buffer, STARTXREF, Math.max(0, length - STARTXREF_SEARCH_BYTES), length);
+            if (startxref < 0) {
+                throw new IllegalStateException("startxref not found");
+            }
+            file.pos = startxref + STARTXREF.length;
+            long xrefOffset = file.readInteger();
+
+            // Some writers count offsets from the %PDF- header rather than the start of the file
+            if (!isXrefAt(xrefOffset) && headerOffset > 0 && isXrefAt(xrefOffset + headerOffset)) {
+                offsetShift = headerOffset;
+            }
+
+            Ref root = null;
+            for (int section = 0; xrefOffset >= 0 && section < MAX_XREF_SECTIONS; section++) {
+                Map<String, Object> trailer = readXrefSection(xrefOffset + offsetShift);
+                if (root == null && trailer.get("Root") instanceof Ref) {
+                    root = (Ref) trailer.get("Root");
+                }
+                encrypted |= trailer.containsKey("Encrypt");
+                // Hybrid files: the stream named by XRefStm is consulted before Prev
+                if (trailer.get("XRefStm") instanceof Long) {
+                    readXrefSection((Long) trailer.get("XRefStm") + offsetShift);
+                }
+                Object prev = trailer.get("Prev");
+                xrefOffset = prev instanceof Long ? (Long) prev : -1;
+            }
+            if (root == null) {
+                throw new IllegalStateException("trailer has no /Root");
+            }
+
+            Map<String, Object> catalog = dictionary(resolve(root.number));
+            if (!(catalog.get("Pages") instanceof Ref)) {
+                throw new IllegalStateException("catalog has no /Pages reference");
+            }
+            Map<String, Object> pages = dictionary(resolve(((Ref) catalog.get("Pages")).number));
+
+            Object count = pages.get("Count");
+            if (count instanceof Ref) {
+                count = resolve(((Ref) count).number);
+            }
+            if (!(count instanceof Long) || (Long) count < 0) {
+                throw new IllegalStateException("root Pages node has no usable /Count");
+            }
+            return (int) (long) (Long) count;
+        }
+
+        private boolean isXrefAt(long offset) {
+            return file.startsWithKeyword(offset, "xref") || isObjectHeaderAt(offset);
+        }
+
+        private boolean isObjectHeaderAt(long offset) {
+            if (offset < 0 || offset >= file.buffer.limit()) {
+                return false;
+            }
+            int mark = file.pos;
+            try {
+                file.pos = (int) offset;
+                file.readInteger();
+                file.readInteger();
+                file.skipWhitespace();
+                return file.startsWithKeyword(file.pos, "obj");
+            } catch (RuntimeException e) {
+                return false;
+            } finally {
+                file.pos = mark;
+            }
+        }
+
+        private Map<String, Object> readXrefSection(long offset) {
+            if (file.startsWithKeyword(offset, "xref")) {
+                return readXrefTable((int) offset + 4);
+            }
+            if (isObjectHeaderAt(offset)) {
+                return readXrefStream(offset);
+            }
+            throw new IllegalStateException("no cross-reference section at " + offset);
+        }
+
+        private Map<String, Object> readXrefTable(int start) {
+            List<long[]> subsections = new ArrayList<>();
+            file.pos = start;
+            while (true) {
+                file.skipWhitespace();
+                if (file.startsWithKeyword(file.pos, "trailer")) {
+                    file.pos += "trailer".length();
+                    sections.add(objectNumber -> classicEntry(subsections, objectNumber));
+                    return dictionary(file.readValue());
+                }
+
+                long first = file.readInteger();
+                long count = file.readInteger();
+                file.skipWhitespace();
+                int entryLength = entryLength(file.pos);
+                subsections.add(new long[]{first, count, file.pos, entryLength});
+                file.pos += (int) (count * entryLength);
+            }
+        }
+
+        // Entries are "oooooooooo ggggg n" plus a one- or two-byte end of line
+        private int entryLength(int entryStart) {
+            int eol = entryStart + 18;
+            int length = 18;
+            while (eol < file.buffer.limit() && length < 20 && Lexer.isWhitespace(file.buffer.get(eol))) {
+                eol++;
+                length++;
+            }
+            return length;
+        }
+
+        private long[] classicEntry(List<long[]> subsections, int objectNumber) {
+            for (long[] subsection : subsections) {
+                long first = subsection[0];
+                if (objectNumber < first || objectNumber >= first + subsection[1]) {
+                    continue;
+                }
+                int entry = (int) (subsection[2] + (objectNumber - first) * subsection[3]);
+                if (file.buffer.get(entry + 17) != 'n') {
+                    return new long[]{0, 0, 0};
+                }
+                long offset = 0;
+                for (int i = 0; i < 10; i++) {
+                    offset = offset * 10 + (file.buffer.get(entry + i) - '0');
+                }
+                return new long[]{1, offset, 0};
+            }
+            return null;
+        }
+
+        private Map<String, Object> readXrefStream(long offset) {
+            file.pos = (int) offset;
+            Map<String, Object> dictionary = dictionary(readIndirectObject(-1));
+            if (!"XRef".equals(dictionary.get("Type"))) {
+                throw new IllegalStateException("object at " + offset + " is not an xref stream");
+            }
+            byte[] data = streamData(dictionary);
+
+            List<?> widths = (List<?>) dictionary.get("W");
+            int[] w = new int[3];
+            for (int i = 0; i < 3; i++) {
+                w[i] = ((Long) widths.get(i)).intValue();
+            }
+            List<?> index = dictionary.get("Index") instanceof List
+                    ? (List<?>) dictionary.get("Index")
+                    : List.of(0L, dictionary.get("Size"));
+
+            Map<Integer, long[]> entries = new HashMap<>();
+            int entryLength = w[0] + w[1] + w[2];
+            int position = 0;
+            for (int i = 0; i + 1 < index.size(); i += 2) {
+                int first = ((Long) index.get(i)).intValue();
+                int count = ((Long) index.get(i + 1)).intValue();
+                for (int k = 0; k < count && position + entryLength <= data.length; k++) {
+                    long type = w[0] == 0 ? 1 : readField(data, position, w[0]);
+                    long field2 = readField(data, position + w[0], w[1]);
+                    long field3 = readField(data, position + w[0] + w[1], w[2]);
+                    entries.put(first + k, new long[]{type, field2, field3});
+                    position += entryLength;
+                }
+            }
+            sections.add(entries::get);
+            return dictionary;
+        }
+
+        private static long readField(byte[] data, int position, int width) {
+            long value = 0;
+            for (int i = 0; i < width; i++) {
+                value = (value << 8) | (data[position + i] & 0xff);
+            }
+            return value;
+        }
+
+        private Object resolve(int objectNumber) {
+            for (XrefSection section : sections) {
+                long[] entry = section.entry(objectNumber);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry[0] == 1) {
+                    int mark = file.pos;
+                    try {
+                        file.pos = (int) (entry[1] + offsetShift);
+                        return readIndirectObject(objectNumber);
+                    } finally {
+                        file.pos = mark;
+                    }
+                }
+                if (entry[0] == 2) {
+                    return objectStream((int) entry[1]).value(objectNumber, (int) entry[2]);
+                }
+                break;
+            }
+            throw new IllegalStateException("object " + objectNumber + " is not in use");
+        }
+
+        /**
+         * Reads "n g obj value" at the current position; expectedNumber -1 accepts any number
+         */
+        private Object readIndirectObject(int expectedNumber) {
+            if (file.pos < 0 || file.pos >= file.buffer.limit()) {
+                throw new IllegalStateException("object offset out of range");
+            }
+            long number = file.readInteger();
+            file.readInteger();
+            file.skipWhitespace();
+            if ((expectedNumber >= 0 && number != expectedNumber) || !file.startsWithKeyword(file.pos, "obj")) {
+                throw new IllegalStateException("xref offset for object " + expectedNumber + " is wrong");
+            }
+            file.pos += 3;
+            return file.readValue();
+        }
+
+        private ObjectStream objectStream(int streamNumber) {
+            if (encrypted) {
+                throw new IllegalStateException("object streams are encrypted");
+            }
+            ObjectStream cached = objectStreams.get(streamNumber);
+            if (cached != null) {
+                return cached;
+            }
+
+            int mark = file.pos;
+            ObjectStream objectStream;
+            try {
+                long[] entry = null;
+                for (XrefSection section : sections) {
+                    if ((entry = section.entry(streamNumber)) != null) {
+                        break;
+                    }
+                }
+                if (entry == null || entry[0] != 1) {
+                    throw new IllegalStateException("object stream " + streamNumber + " not found");
+                }
+                file.pos = (int) (entry[1] + offsetShift);
+                Map<String, Object> dictionary = dictionary(readIndirectObject(streamNumber));
+                objectStream = new ObjectStream(dictionary, streamData(dictionary));
+            } finally {
+                file.pos = mark;
+            }
+            objectStreams.put(streamNumber, objectStream);
+            return objectStream;
+        }
+
+        /**
+         * Raw bytes of the stream whose dictionary was just read, Flate-decoded if needed
+         */
+        private byte[] streamData(Map<String, Object> dictionary) {
+            file.skipWhitespace();
+            if (!file.startsWithKeyword(file.pos, "stream")) {
+                throw new IllegalStateException("stream keyword expected at " + file.pos);
+            }
+            file.pos += "stream".length();
+            if (file.pos < file.buffer.limit() && file.buffer.get(file.pos) == '\r') {
+                file.pos++;
+            }
+            if (file.pos < file.buffer.limit() && file.buffer.get(file.pos) == '\n') {
+                file.pos++;
+            }
+
+            Object length = dictionary.get("Length");
+            if (length instanceof Ref) {
+                length = indirectLength((Ref) length);
+            }
+            if (!(length instanceof Long) || file.pos + (Long) length > file.buffer.limit()) {
+                throw new IllegalStateException("bad stream /Length");
+            }
+            byte[] data = new byte[(int) (long) (Long) length];
+            file.buffer.get(file.pos, data);
+
+            Object filter = dictionary.get("Filter");
+            Object parameters = dictionary.get("DecodeParms");
+            if (filter instanceof List && ((List<?>) filter).size() == 1) {
+                filter = ((List<?>) filter).get(0);
+                parameters = parameters instanceof List && !((List<?>) parameters).isEmpty()
+                        ? ((List<?>) parameters).get(0) : parameters;
+            }
+            if (filter == null) {
+                return data;
+            }
+            if (!"FlateDecode".equals(filter)) {
+                throw new IllegalStateException("unsupported stream filter " + filter);
+            }
+            return unpredict(inflate(data), parameters);
+        }
+
+        // An xref stream's own /Length may point into the section being read; measure it instead
+        private Object indirectLength(Ref length) {
+            try {
+                return resolve(length.number);
+            } catch (IllegalStateException e) {
+                int end = indexOf(file.buffer, ENDSTREAM, file.pos, file.buffer.limit());
+                if (end < 0) {
+                    throw e;
+                }
+                while (end > file.pos && Lexer.isWhitespace(file.buffer.get(end - 1))) {
+                    end--;
+                }
+                return (long) (end - file.pos);
+            }
+        }
+
+        private static byte[] inflate(byte[] data) {
+            try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException("corrupt Flate stream: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Undoes the PNG row predictors that xref and object streams are usually written with
+         */
+        private static byte[] unpredict(byte[] data, Object parameters) {
+            if (!(parameters instanceof Map)) {
+                return data;
+            }
+            Map<?, ?> decodeParms = (Map<?, ?>) parameters;
+            int predictor = intParameter(decodeParms, "Predictor", 1);
+            if (predictor == 1) {
+                return data;
+            }
+            if (predictor < 10) {
+                throw new IllegalStateException("unsupported predictor " + predictor);
+            }
+
+            int bitsPerPixel = intParameter(decodeParms, "Colors", 1) * intParameter(decodeParms, "BitsPerComponent", 8);
+            int bytesPerPixel = Math.max(1, bitsPerPixel / 8);
+            int rowLength = (intParameter(decodeParms, "Columns", 1) * bitsPerPixel + 7) / 8;
+            int rows = data.length / (rowLength + 1);
+            byte[] out = new byte[rows * rowLength];
+
+            for (int row = 0; row < rows; row++) {
+                int in = row * (rowLength + 1);
+                int type = data[in];
+                int current = row * rowLength;
+                int previous = current - rowLength;
+                for (int i = 0; i < rowLength; i++) {
+                    int raw = data[in + 1 + i] & 0xff;
+                    int left = i >= bytesPerPixel ? out[current + i - bytesPerPixel] & 0xff : 0;
+                    int up = row > 0 ? out[previous + i] & 0xff : 0;
+                    int upLeft = row > 0 && i >= bytesPerPixel ? out[previous + i - bytesPerPixel] & 0xff : 0;
+                    int value;
+                    switch (type) {
+                        case 0 -> value = raw;
+                        case 1 -> value = raw + left;
+                        case 2 -> value = raw + up;
+                        case 3 -> value = raw + ((left + up) >>> 1);
+                        case 4 -> value = raw + paeth(left, up, upLeft);
+                        default -> throw new IllegalStateException("bad PNG predictor row type " + type);
+                    }
+                    out[current + i] = (byte) value;
+                }
+            }
+            return out;
+        }
+
+        private static int paeth(int left, int up, int upLeft) {
+            int estimate = left + up - upLeft;
+            int distanceLeft = Math.abs(estimate - left);
+            int distanceUp = Math.abs(estimate - up);
+            int distanceUpLeft = Math.abs(estimate - upLeft);
+            if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft) {
+                return left;
+            }
+            return distanceUp <= distanceUpLeft ? up : upLeft;
+        }
+
+        private static int intParameter(Map<?, ?> parameters, String key, int defaultValue) {
+            Object value = parameters.get(key);
+            return value instanceof Long ? ((Long) value).intValue() : defaultValue;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> dictionary(Object value) {
+            if (!(value instanceof Map)) {
+                throw new IllegalStateException("dictionary expected");
+            }
+            return (Map<String, Object>) value;
+        }
+    }
+
+    /**
+     * Decoded object stream: "objNum offset" pairs followed by the objects from /First on
+     */
+    private static final class ObjectStream {
+        private final Lexer lexer;
+        private final int first;
+        private final int[] numbers;
+        private final int[] offsets;
+
+        ObjectStream(Map<String, Object> dictionary, byte[] data) {
+            this.lexer = new Lexer(ByteBuffer.wrap(data));
+            this.first = ((Long) dictionary.get("First")).intValue();
+            int count = ((Long) dictionary.get("N")).intValue();
+            this.numbers = new int[count];
+            this.offsets = new int[count];
+            for (int i = 0; i < count; i++) {
+                numbers[i] = (int) lexer.readInteger();
+                offsets[i] = (int) lexer.readInteger();
+            }
+        }
+
+        Object value(int objectNumber, int index) {
+            if (index < 0 || index >= numbers.length || numbers[index] != objectNumber) {
+                throw new IllegalStateException("object " + objectNumber + " not at index " + index);
+            }
+            lexer.pos = first + offsets[index];
+            return lexer.readValue();
+        }
+    }
+
+    /**
+     * Tokenizer for the PDF object syntax over a byte buffer. Numbers come back as Long or
+     * Double, names without the slash, references as Ref, dictionaries as Map and arrays as
+     * List; strings are skipped.
+     */
+    private static final class Lexer {
+        private final ByteBuffer buffer;
+        private int pos;
+
+        Lexer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long readInteger() {
+            Object value = readValue();
+            if (!(value instanceof Long)) {
+                throw new IllegalStateException("integer expected at " + pos);
+            }
+            return (Long) value;
+        }
+
+        Object readValue() {
+            skipWhitespace();
+            if (pos >= buffer.limit()) {
+                throw new IllegalStateException("unexpected end of data");
+            }
+
+            byte c = buffer.get(pos);
+            if (c == '<' && peek(1) == '<') {
+                pos += 2;
+                return readDictionary();
+            }
+            if (c == '<') {
+                skipUntil((byte) '>');
+                return "";
+            }
+            if (c == '[') {
+                pos++;
+                List<Object> array = new ArrayList<>();
+                while (true) {
+                    skipWhitespace();
+                    if (pos >= buffer.limit()) {
+                        throw new IllegalStateException("unterminated array");
+                    }
+                    if (buffer.get(pos) == ']') {
+                        pos++;
+                        return array;
+                    }
+                    array.add(readValue());
+                }
+            }
+            if (c == '(') {
+                skipLiteralString();
+                return "";
+            }
+            if (c == '/') {
+                pos++;
+                return readRegular();
+            }
+            if (c == '+' || c == '-' || c == '.' || Character.isDigit(c)) {
+                return readNumberOrReference();
+            }
+            return readRegular();
+        }
+
+        private Map<String, Object> readDictionary() {
+            Map<String, Object> dictionary = new HashMap<>();
+            while (true) {
+                skipWhitespace();
+                if (pos >= buffer.limit()) {
+                    throw new IllegalStateException("unterminated dictionary");
+                }
+                if (buffer.get(pos) == '>' && peek(1) == '>') {
+                    pos += 2;
+                    return dictionary;
+                }
+                Object key = readValue();
+                Object value = readValue();
+                if (key instanceof String) {
+                    dictionary.put((String) key, value);
+                }
+            }
+        }
+
+        private Object readNumberOrReference() {
+            String token = readRegular();
+            if (token.contains(".")) {
+                return Double.parseDouble(token);
+            }
+            long number = Long.parseLong(token);
+
+            // "n g R" is an indirect reference; anything else leaves the number on its own
+            int mark = pos;
+            skipWhitespace();
+            if (pos < buffer.limit() && Character.isDigit(buffer.get(pos))) {
+                readRegular();
+                skipWhitespace();
+                if (pos < buffer.limit() && buffer.get(pos) == 'R' && isDelimiterOrEnd(pos + 1)) {
+                    pos++;
+                    return new Ref((int) number);
+                }
+            }
+            pos = mark;
+            return number;
+        }
+
+        private String readRegular() {
+            int start = pos;
+            while (pos < buffer.limit() && !isWhitespace(buffer.get(pos)) && !isDelimiter(buffer.get(pos))) {
+                pos++;
+            }
+            if (pos == start) {
+                // Stray delimiter, step over it
+                pos++;
+                return "";
+            }
+            byte[] bytes = new byte[pos - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        private void skipLiteralString() {
+            int depth = 0;
+            while (pos < buffer.limit()) {
+                byte c = buffer.get(pos++);
+                if (c == '\\') {
+                    pos++;
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void skipUntil(byte terminator) {
+            while (pos < buffer.limit() && buffer.get(pos) != terminator) {
+                pos++;
+            }
+            pos++;
+        }
+
+        void skipWhitespace() {
+            while (pos < buffer.limit()) {
+                byte c = buffer.get(pos);
+                if (c == '%') {
+                    while (pos < buffer.limit() && buffer.get(pos) != '\n' && buffer.get(pos) != '\r') {
+                        pos++;
+                    }
+                } else if (isWhitespace(c)) {
+                    pos++;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        boolean startsWithKeyword(long offset, String keyword) {
+            if (offset < 0 || offset + keyword.length() > buffer.limit()) {
+                return false;
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                if (buffer.get((int) offset + i) != keyword.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private byte peek(int ahead) {
+            return pos + ahead < buffer.limit() ? buffer.get(pos + ahead) : 0;
+        }
+
+        private boolean isDelimiterOrEnd(int index) {
+            return index >= buffer.limit() || isWhitespace(buffer.get(index)) || isDelimiter(buffer.get(index));
+        }
+
+        static boolean isWhitespace(byte c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0;
+        }
+
+        private static boolean isDelimiter(byte c) {
+            return c == '(' || c == ')' || c == '<' || c == '>' || c == '[' || c == ']'
+                    || c == '{' || c == '}' || c == '/' || c == '%';
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.demoPDF.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Radix trie from string keys to values, each scored under one or more rankings, that
+ * returns the top-k values under a prefix without visiting the rest of the subtree. Every
+ * node keeps the best score found below it per ranking, so a best-first walk from the
+ * prefix node can stop after k values. Chains of single-child nodes are collapsed into one
+ * edge, which keeps the node count under twice the number of keys.
+ * Not thread-safe; callers synchronise.
+ */
+public class PrefixTrie<V> {
+
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+    private final int rankings;
+    private final Node<V> root;
+    private int size;
+    private int nodeCount = 1;
+
+    public PrefixTrie(int rankings) {
+        this.rankings = rankings;
+        this.root = new Node<>("", rankings);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Add or replace the value for key; scores has one entry per ranking, higher is better
+     */
+    public void put(String key, V value, long... scores) {
+        if (scores.length != rankings) {
+            throw new IllegalArgumentException("Expected " + rankings + " scores, got " + scores.length);
+        }
+        put(root, key, value, scores.clone());
+    }
+
+    public void remove(String key) {
+        remove(root, key);
+    }
+
+    /**
+     * Up to k values whose keys start with prefix, best first under the given ranking
+     */
+    public List<V> top(String prefix, int k, int ranking) {
+        List<V> results = new ArrayList<>(k);
+        Node<V> start = find(prefix);
+        if (start == null || k <= 0) {
+            return results;
+        }
+        // Nodes are queued by the best score below them, values by their own score
+        PriorityQueue<Candidate<V>> queue = new PriorityQueue<>();
+        queue.add(new Candidate<>(start, null, start.best[ranking]));
+        while (!queue.isEmpty() && results.size() < k) {
+            Candidate<V> next = queue.poll();
+            if (next.node == null) {
+                results.add(next.value);
+                continue;
+            }
+            Node<V> node = next.node;
+            if (node.value != null) {
+                queue.add(new Candidate<>(null, node.value, node.scores[ranking]));
+            }
+            for (Node<V> child : node.children) {
+                queue.add(new Candidate<>(child, null, child.best[ranking]));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Approximate heap use of the trie itself (nodes, edges, score arrays), not of the values
+     */
+    public long estimatedBytes() {
+        return estimatedBytes(root);
+    }
+
+    // The node the prefix ends in or inside the edge of, or null when no key starts with it
+    private Node<V> find(String prefix) {
+        Node<V> node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            Node<V> child = node.child(prefix.charAt(offset));
+            if (child == null) {
+                return null;
+            }
+            int matched = commonPrefix(child.edge, prefix, offset);
+            if (offset + matched == prefix.length()) {
+                return child;
+            }
+            if (matched < child.edge.length()) {
+                return null;
+            }
+            node = child;
+            offset += matched;
+        }
+        return node;
+    }
+
+    private void put(Node<V> node, String key, V value, long[] scores) {
+        if (key.isEmpty()) {
+            if (node.value == null) {
+                size++;
+            }
+            node.value = value;
+            node.scores = scores;
+        } else {
+            Node<V> child = node.child(key.charAt(0));
+            if (child == null) {
+                child = new Node<>(key, rankings);
+                nodeCount++;
+                node.addChild(child);
+                put(child, "", value, scores);
+            } else {
+                int matched = commonPrefix(child.edge, key, 0);
+                if (matched < child.edge.length()) {
+                    // Split the edge: the shared part becomes a new node above the old child
+                    Node<V> middle = new Node<>(child.edge.substring(0, matched), rankings);
+                    nodeCount++;
+                    node.replaceChild(child, middle);
+                    child.edge = child.edge.substring(matched);
+                    middle.addChild(child);
+                    middle.recomputeBest();
+                    child = middle;
+                }
+                put(child, key.substring(matched), value, scores);
+            }
+        }
+        node.recomputeBest();
+    }
+
+    private void remove(Node<V> node, String key) {
+        if (key.isEmpty()) {
+            if (node.value != null) {
+                node.value = null;
+                node.scores = null;
+                size--;
+            }
+        } else {
+            Node<V> child = node.child(key.charAt(0));
+            if (child == null || !key.startsWith(child.edge)) {
+                return;
+            }
+            remove(child, key.substring(child.edge.length()));
+            if (child.value == null && child.children.length == 0) {
+                node.removeChild(child);
+                nodeCount--;
+            } else if (child.value == null && child.children.length == 1) {
+                // Merge a pass-through node into its only child
+                Node<V> grandchild = child.children[0];
+                grandchild.edge = child.edge + grandchild.edge;
+                node.replaceChild(child, grandchild);
+                nodeCount--;
+            }
+        }
+        node.recomputeBest();
+    }
+
+    private long estimatedBytes(Node<V> node) {
+        // Node fields, the edge String (Latin-1) and the score arrays; leaves share one empty children array
+        long bytes = 32 + 40 + node.edge.length() + 16 + 8L * rankings;
+        if (node.children.length > 0) {
+            bytes += 16 + 4L * node.children.length;
+        }
+        if (node.scores != null) {
+            bytes += 16 + 8L * rankings;
+        }
+        for (Node<V> child : node.children) {
+            bytes += estimatedBytes(child);
+        }
+        return bytes;
+    }
+
+    private static int commonPrefix(String edge, String key, int offset) {
+        int limit = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < limit && edge.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node<V> {
+        private String edge;
+        private Node<V>[] children;
+        private V value;
+        private long[] scores;
+        private final long[] best;
+
+        @SuppressWarnings("unchecked")
+        private Node(String edge, int rankings) {
+            this.edge = edge;
+            this.children = (Node<V>[]) NO_CHILDREN;
+            this.best = new long[rankings];
+        }
+
+        // Children are kept sorted by the first character of their edge
+        private Node<V> child(char first) {
+            int position = indexOf(first);
+            return position >= 0 ? children[position] : null;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].edge.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void addChild(Node<V> child) {
+            int insertAt = -indexOf(child.edge.charAt(0)) - 1;
+            Node<V>[] grown = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, insertAt, grown, insertAt + 1, children.length - insertAt);
+            grown[insertAt] = child;
+            children = grown;
+        }
+
+        // The replacement starts with the same character, so the order is unchanged
+        private void replaceChild(Node<V> old, Node<V> replacement) {
+            children[indexOf(old.edge.charAt(0))] = replacement;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void removeChild(Node<V> child) {
+            int position = indexOf(child.edge.charAt(0));
+            if (children.length == 1) {
+                children = (Node<V>[]) NO_CHILDREN;
+                return;
+            }
+            Node<V>[] shrunk = Arrays.copyOf(children, children.length - 1);
+            System.arraycopy(children, position + 1, shrunk, position, children.length - position - 1);
+            children = shrunk;
+        }
+
+        private void recomputeBest() {
+            for (int ranking = 0; ranking < best.length; ranking++) {
+                long max = scores != null ? scores[ranking] : Long.MIN_VALUE;
+                for (Node<V> child : children) {
+                    max = Math.max(max, child.best[ranking]);
+                }
+                best[ranking] = max;
+            }
+        }
+    }
+
+    private static final class Candidate<V> implements Comparable<Candidate<V>> {
+        private final Node<V> node;
+        private final V value;
+        private final long score;
+
+        private Candidate(Node<V> node, V value, long score) {
+            this.node = node;
+            this.value = value;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Candidate<V> other) {
+            return Long.compare(other.score, score);
+        }
+    }
+}
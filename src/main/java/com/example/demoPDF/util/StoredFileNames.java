@@ -0,0 +1,32 @@
+package com.example.demoPDF.util;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Naming scheme for stored uploads, shared by the storage backends that keep one file per
+ * upload so their names cannot drift apart: "<base>_<yyyyMMdd_HHmmss>_<8 hex><extension>"
+ */
+public class StoredFileNames {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    /**
+     * Unique name for an already cleaned file name, keeping its extension
+     */
+    public static String uniqueFileName(String fileName) {
+        String extension = "";
+        if (fileName.lastIndexOf(".") > 0) {
+            extension = fileName.substring(fileName.lastIndexOf("."));
+        }
+        String timestamp = LocalDateTime.now().format(TIMESTAMP);
+        String uuid = UUID.randomUUID().toString().substring(0, 8);
+        String baseName = fileName.replace(extension, "");
+
+        // Clean base name for file system compatibility
+        baseName = baseName.replaceAll("[^a-zA-Z0-9._-]", "_");
+
+        return String.format("%s_%s_%s%s", baseName, timestamp, uuid, extension);
+    }
+}
@@ -0,0 +1,24 @@
+-- Baseline schema: pdf_documents as ddl-auto=update created it from the original entity.
+-- Databases created before migrations already have exactly this and are baselined at
+-- version 1, so they start from V2; everything added since lives in V2 onwards.
+-- Kept to types that SQL Server and H2 (MSSQLServer mode) both accept; vendor-specific
+-- DDL lives in db/migration/{vendor}.
+
+CREATE TABLE pdf_documents (
+    id               BIGINT IDENTITY(1,1) NOT NULL,
+    content_type     VARCHAR(100),
+    created_by       VARCHAR(100),
+    edition          VARCHAR(100),
+    file_path        VARCHAR(500)  NOT NULL,
+    file_size        BIGINT,
+    filename         VARCHAR(255)  NOT NULL,
+    is_active        BIT           NOT NULL,
+    notes            NVARCHAR(MAX),
+    page_count       INT,
+    product_code     VARCHAR(100),
+    publication_date DATE,
+    title            VARCHAR(255)  NOT NULL,
+    upload_date      DATETIME2(6)  NOT NULL,
+    updated_date     DATETIME2(6),
+    PRIMARY KEY (id)
+);
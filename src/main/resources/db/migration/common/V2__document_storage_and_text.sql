@@ -0,0 +1,49 @@
+-- Columns and tables added on top of the baseline: content hashes and the PDF info
+-- captured at ingest, per-page text, content-addressed blobs and optimized renditions.
+-- One column per ALTER so the same script runs on SQL Server and H2.
+
+ALTER TABLE pdf_documents ADD content_hash VARCHAR(64);
+ALTER TABLE pdf_documents ADD pdf_version REAL;
+ALTER TABLE pdf_documents ADD is_encrypted BIT;
+ALTER TABLE pdf_documents ADD pdf_title VARCHAR(500);
+ALTER TABLE pdf_documents ADD pdf_author VARCHAR(255);
+ALTER TABLE pdf_documents ADD pdf_subject VARCHAR(500);
+ALTER TABLE pdf_documents ADD pdf_keywords VARCHAR(500);
+ALTER TABLE pdf_documents ADD pdf_creator VARCHAR(255);
+ALTER TABLE pdf_documents ADD pdf_producer VARCHAR(255);
+ALTER TABLE pdf_documents ADD pdf_creation_date DATETIME2(6);
+ALTER TABLE pdf_documents ADD pdf_modification_date DATETIME2(6);
+
+CREATE SEQUENCE pdf_page_texts_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE pdf_page_texts (
+    id          BIGINT        NOT NULL,
+    document_id BIGINT        NOT NULL,
+    page_number INT           NOT NULL,
+    text        NVARCHAR(MAX),
+    CONSTRAINT pk_pdf_page_texts PRIMARY KEY (id)
+);
+
+CREATE TABLE pdf_blobs (
+    content_hash VARCHAR(64)   NOT NULL,
+    storage_path VARCHAR(500)  NOT NULL,
+    file_size    BIGINT        NOT NULL,
+    ref_count    INT           NOT NULL,
+    created_date DATETIME2(6)  NOT NULL,
+    CONSTRAINT pk_pdf_blobs PRIMARY KEY (content_hash)
+);
+
+CREATE TABLE pdf_optimizations (
+    document_id             BIGINT        NOT NULL,
+    file_path               VARCHAR(500),
+    file_size               BIGINT,
+    content_hash            VARCHAR(64),
+    original_size           BIGINT        NOT NULL,
+    optimized_size          BIGINT        NOT NULL,
+    linearized              BIT           NOT NULL,
+    tool                    VARCHAR(20),
+    original_first_page_bytes  BIGINT,
+    optimized_first_page_bytes BIGINT,
+    created_date            DATETIME2(6)  NOT NULL,
+    CONSTRAINT pk_pdf_optimizations PRIMARY KEY (document_id)
+);
@@ -0,0 +1,7 @@
+-- H2 counterpart of sqlserver/V3: H2 can drop IDENTITY in place, and the sequence is
+-- restarted at MAX(id) + 50, the top of the first block Hibernate's pooled optimizer uses.
+
+ALTER TABLE pdf_documents ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE pdf_documents_seq START WITH 50 INCREMENT BY 50;
+ALTER SEQUENCE pdf_documents_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM pdf_documents);
@@ -0,0 +1,20 @@
+-- H2 counterpart of sqlserver/V4: same access paths, without filtered indexes or INCLUDE
+-- columns, which H2 does not support.
+
+CREATE INDEX ix_pdf_documents_active_upload
+    ON pdf_documents (is_active, upload_date DESC, id DESC);
+
+CREATE INDEX ix_pdf_documents_product_upload
+    ON pdf_documents (product_code, is_active, upload_date DESC);
+
+CREATE INDEX ix_pdf_documents_edition_upload
+    ON pdf_documents (edition, is_active, upload_date DESC);
+
+CREATE INDEX ix_pdf_documents_product_export
+    ON pdf_documents (product_code, id);
+
+CREATE UNIQUE INDEX ux_pdf_page_texts_document_page
+    ON pdf_page_texts (document_id, page_number);
+
+CREATE UNIQUE INDEX ux_pdf_blobs_storage_path
+    ON pdf_blobs (storage_path);
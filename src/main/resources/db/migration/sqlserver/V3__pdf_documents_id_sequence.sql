@@ -0,0 +1,27 @@
+-- pdf_documents.id moves from IDENTITY to the pooled sequence pdf_documents_seq so that
+-- Hibernate can batch inserts. SQL Server cannot drop IDENTITY from a column, so the ids
+-- are copied into a new column that replaces it (the primary key's generated name is
+-- looked up). Existing ids are kept as they are.
+
+-- Index created by ddl-auto on builds that predate the migrations; it would pin the old column
+DROP INDEX IF EXISTS ix_pdf_documents_active_upload ON pdf_documents;
+
+ALTER TABLE pdf_documents ADD id_new BIGINT NULL;
+GO
+
+UPDATE pdf_documents SET id_new = id;
+ALTER TABLE pdf_documents ALTER COLUMN id_new BIGINT NOT NULL;
+
+DECLARE @pk sysname = (SELECT name FROM sys.key_constraints
+                       WHERE parent_object_id = OBJECT_ID('pdf_documents') AND type = 'PK');
+EXEC ('ALTER TABLE pdf_documents DROP CONSTRAINT ' + QUOTENAME(@pk));
+ALTER TABLE pdf_documents DROP COLUMN id;
+EXEC sp_rename 'pdf_documents.id_new', 'id', 'COLUMN';
+GO
+
+ALTER TABLE pdf_documents ADD CONSTRAINT pk_pdf_documents PRIMARY KEY (id);
+
+-- Hibernate's pooled optimizer treats each value it draws as the top of a block of 50,
+-- so the first value must be MAX(id) + 50 for the first block to start at MAX(id) + 1
+DECLARE @start BIGINT = (SELECT COALESCE(MAX(id), 0) + 50 FROM pdf_documents);
+EXEC ('CREATE SEQUENCE pdf_documents_seq START WITH ' + CAST(@start AS VARCHAR(20)) + ' INCREMENT BY 50');
@@ -0,0 +1,34 @@
+-- Indexes for the repository access paths. Filtered on is_active = 1 because every read
+-- path filters on it and soft-deleted rows should not cost index space or seeks.
+
+-- Newest-first listing, keyset pages on (upload_date, id) and countByIsActiveTrue.
+-- Covers the summary projection so list pages never touch the base table (or notes).
+CREATE INDEX ix_pdf_documents_active_upload
+    ON pdf_documents (upload_date DESC, id DESC)
+    INCLUDE (title, filename, file_size, page_count, product_code, edition, publication_date,
+             content_type, created_by, updated_date)
+    WHERE is_active = 1;
+
+-- findByProductCodeAndIsActiveTrueOrderByUploadDateDesc
+CREATE INDEX ix_pdf_documents_product_upload
+    ON pdf_documents (product_code, upload_date DESC)
+    WHERE is_active = 1;
+
+-- findByEditionAndIsActiveTrueOrderByUploadDateDesc
+CREATE INDEX ix_pdf_documents_edition_upload
+    ON pdf_documents (edition, upload_date DESC)
+    WHERE is_active = 1;
+
+-- Export batches (product code, optional edition, id keyset) and countForExport
+CREATE INDEX ix_pdf_documents_product_export
+    ON pdf_documents (product_code, id)
+    INCLUDE (edition, filename, file_path)
+    WHERE is_active = 1;
+
+-- Page text lookups, counts and deletes by document
+CREATE UNIQUE INDEX ux_pdf_page_texts_document_page
+    ON pdf_page_texts (document_id, page_number);
+
+-- PdfBlobRepository.findByStoragePath
+CREATE UNIQUE INDEX ux_pdf_blobs_storage_path
+    ON pdf_blobs (storage_path);
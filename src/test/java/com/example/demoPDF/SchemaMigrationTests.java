@@ -0,0 +1,83 @@
+package com.example.demoPDF;
+
+import com.example.demoPDF.entity.PdfDocument;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrades a database that was created by ddl-auto before the migrations existed: Flyway
+ * baselines it at V1 and applies the rest, after which Hibernate validates the schema
+ * (as part of starting this context) and new ids continue above the existing ones.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:baseline;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+        "app.search.index-dir=target/test-data/baseline/search-index"
+})
+@ActiveProfiles("test")
+class SchemaMigrationTests {
+
+    @TestConfiguration
+    static class BaselineDatabase {
+
+        @Bean
+        FlywayMigrationStrategy migrateFromBaseline() {
+            return flyway -> {
+                new ResourceDatabasePopulator(new ClassPathResource("db/baseline-schema.sql"))
+                        .execute(flyway.getConfiguration().getDataSource());
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private PdfDocumentRepository repository;
+
+    @Test
+    void baselinesExistingSchemaAndAppliesLaterMigrations() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertEquals("1", applied[0].getVersion().getVersion());
+        assertTrue(applied[0].getType().isBaseline());
+        assertEquals("4", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void keepsExistingRowsAndContinuesIdsAboveThem() {
+        PdfDocument existing = repository.findById(2L).orElseThrow();
+        assertEquals("Second", existing.getTitle());
+        assertEquals(2, repository.countByIsActiveTrue());
+
+        List<PdfDocument> added = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            PdfDocument document = new PdfDocument();
+            document.setTitle("Added " + i);
+            document.setFilename("added-" + i + ".pdf");
+            document.setFilePath("uploads/added-" + i + ".pdf");
+            added.add(document);
+        }
+        repository.saveAll(added);
+
+        assertEquals(4L, added.get(0).getId());
+        assertEquals(63L, added.get(59).getId());
+        assertEquals(63, repository.count());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demoPDF.service.impl;
+
+import com.example.demoPDF.dto.DocumentFacets;
+import com.example.demoPDF.dto.FacetCountView;
+import com.example.demoPDF.event.PdfDocumentFacetsEvent;
+import com.example.demoPDF.repository.PdfDocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FacetServiceImplTest {
+
+    private FacetServiceImpl facets;
+
+    @BeforeEach
+    void seed() {
+        PdfDocumentRepository repository = mock(PdfDocumentRepository.class);
+        // What a case-insensitive GROUP BY returns: one row per combination, in whichever spelling it picked
+        when(repository.countActiveByFacets()).thenReturn(List.of(
+                row("ABC", "First", 2020, 2),
+                row("XYZ", null, 2021, 1)));
+        facets = new FacetServiceImpl(repository);
+        facets.resync();
+    }
+
+    @Test
+    void adjustmentsInAnotherCaseLandOnTheSeededCounter() {
+        facets.onFacetsChanged(new PdfDocumentFacetsEvent(null, values("abc", "FIRST ", 2020)));
+        facets.onFacetsChanged(new PdfDocumentFacetsEvent(values("xyz", null, 2021), null));
+
+        DocumentFacets result = facets.getFacets(null, null, null);
+        assertEquals(3, result.getTotal());
+        assertEquals(Map.of("ABC", 3L), result.getProductCodes());
+        assertEquals(Map.of("First", 3L), result.getEditions());
+        assertEquals(Map.of(2020, 3L), result.getPublicationYears());
+    }
+
+    @Test
+    void changingOnlyTheCaseKeepsTheCount() {
+        facets.onFacetsChanged(new PdfDocumentFacetsEvent(values("ABC", "First", 2020), values("Abc", "first", 2020)));
+
+        assertEquals(Map.of("ABC", 2L, "XYZ", 1L), facets.getFacets(null, null, null).getProductCodes());
+    }
+
+    @Test
+    void filtersCompareCaseInsensitively() {
+        DocumentFacets result = facets.getFacets("abc", null, null);
+        assertEquals(2, result.getTotal());
+        assertEquals(Map.of(2020, 2L), result.getPublicationYears());
+        assertEquals(Map.of("ABC", 2L, "XYZ", 1L), result.getProductCodes());
+    }
+
+    private static PdfDocumentFacetsEvent.Values values(String productCode, String edition, Integer year) {
+        return new PdfDocumentFacetsEvent.Values(productCode, edition, year);
+    }
+
+    private static FacetCountView row(String productCode, String edition, Integer year, long documentCount) {
+        return new FacetCountView() {
+            @Override
+            public String getProductCode() {
+                return productCode;
+            }
+
+            @Override
+            public String getEdition() {
+                return edition;
+            }
+
+            @Override
+            public Integer getPublicationYear() {
+                return year;
+            }
+
+            @Override
+            public Long getDocumentCount() {
+                return documentCount;
+            }
+        };
+    }
+}
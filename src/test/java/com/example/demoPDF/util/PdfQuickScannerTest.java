@@ -0,0 +1,146 @@
+package com.example.demoPDF.util;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfQuickScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsPageCountFromClassicXrefTable() throws IOException {
+        Path file = createPdf("classic.pdf", 3, CompressParameters.NO_COMPRESSION);
+
+        PdfQuickScanner.ScanResult result = PdfQuickScanner.scan(file, false);
+
+        assertTrue(result.isPdf());
+        assertTrue(result.isFastPath());
+        assertEquals(3, result.getPageCount());
+    }
+
+    @Test
+    void readsPageCountThroughXrefAndObjectStreams() throws IOException {
+        Path file = createPdf("compressed.pdf", 5, CompressParameters.DEFAULT_COMPRESSION);
+
+        PdfQuickScanner.ScanResult result = PdfQuickScanner.scan(file, false);
+
+        assertTrue(result.isFastPath());
+        assertEquals(5, result.getPageCount());
+    }
+
+    @Test
+    void followsIncrementalUpdates() throws IOException {
+        Path original = createPdf("original.pdf", 2, CompressParameters.NO_COMPRESSION);
+        Path file = tempDir.resolve("incremental.pdf");
+        try (PDDocument document = Loader.loadPDF(original.toFile())) {
+            document.addPage(new PDPage());
+            document.getPages().getCOSObject().setNeedToBeUpdated(true);
+            document.getDocumentCatalog().getCOSObject().setNeedToBeUpdated(true);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                document.saveIncremental(out);
+            }
+        }
+
+        PdfQuickScanner.ScanResult result = PdfQuickScanner.scan(file, false);
+
+        assertTrue(result.isFastPath());
+        assertEquals(3, result.getPageCount());
+    }
+
+    @Test
+    void acceptsPdfFilesAndStreams() throws IOException {
+        Path file = tempDir.resolve("document.pdf");
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.save(file.toFile());
+        }
+
+        assertTrue(PdfQuickScanner.hasPdfHeader(file));
+        try (InputStream in = Files.newInputStream(file)) {
+            assertTrue(PdfQuickScanner.hasPdfHeader(in));
+        }
+    }
+
+    @Test
+    void findsHeaderAfterLeadingJunk() throws IOException {
+        byte[] content = ("\r\n".repeat(100) + "%PDF-1.7\n").getBytes(StandardCharsets.ISO_8859_1);
+
+        assertTrue(PdfQuickScanner.hasPdfHeader(new ByteArrayInputStream(content)));
+    }
+
+    @Test
+    void rejectsFilesWithoutPdfHeader() throws IOException {
+        Path file = tempDir.resolve("not-a.pdf");
+        Files.writeString(file, "PK\u0003\u0004 definitely a zip", StandardCharsets.ISO_8859_1);
+
+        assertFalse(PdfQuickScanner.hasPdfHeader(file));
+        assertFalse(PdfQuickScanner.scan(file).isPdf());
+    }
+
+    @Test
+    void fallsBackToFullParseWhenTrailerIsDamaged() throws IOException {
+        Path file = createPdf("damaged.pdf", 4, CompressParameters.NO_COMPRESSION);
+        String content = Files.readString(file, StandardCharsets.ISO_8859_1);
+        Files.writeString(file, content.replace("startxref", "startxxxx"), StandardCharsets.ISO_8859_1);
+
+        assertFalse(PdfQuickScanner.scan(file, false).isFastPath());
+        assertEquals(-1, PdfQuickScanner.scan(file, false).getPageCount());
+
+        PdfQuickScanner.ScanResult result = PdfQuickScanner.scan(file);
+        assertFalse(result.isFastPath());
+        assertEquals(4, result.getPageCount());
+    }
+
+    @Test
+    void firstPageNeedsWholeFileUnlessValidlyLinearized() throws IOException {
+        Path plain = tempDir.resolve("plain.pdf");
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.save(plain.toFile());
+        }
+        assertEquals(Files.size(plain), PdfQuickScanner.firstPageBytes(plain));
+
+        Path linearized = tempDir.resolve("linearized.pdf");
+        Files.writeString(linearized, linearizedHead(4000), StandardCharsets.ISO_8859_1);
+        assertEquals(1200, PdfQuickScanner.firstPageBytes(linearized));
+
+        // Appended to after linearizing: /L no longer matches, so viewers fetch the whole file
+        Path updated = tempDir.resolve("updated.pdf");
+        Files.writeString(updated, linearizedHead(4000) + "% incremental update\n", StandardCharsets.ISO_8859_1);
+        assertEquals(Files.size(updated), PdfQuickScanner.firstPageBytes(updated));
+    }
+
+    private Path createPdf(String name, int pages, CompressParameters compression) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(file.toFile(), compression);
+        }
+        return file;
+    }
+
+    private static String linearizedHead(int fileLength) {
+        String head = "%PDF-1.7\n1 0 obj\n<</Linearized 1/L " + fileLength
+                + "/H [ 600 140 ]/O 3/E 1200/N 2/T 3900>>\nendobj\n";
+        return head + " ".repeat(fileLength - head.length());
+    }
+}
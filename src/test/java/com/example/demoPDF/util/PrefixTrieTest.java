@@ -0,0 +1,90 @@
+package com.example.demoPDF.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixTrieTest {
+
+    @Test
+    void returnsBestValuesUnderPrefixForEachRanking() {
+        PrefixTrie<String> trie = new PrefixTrie<>(2);
+        trie.put("hub motor", "hub motor", 5, 1);
+        trie.put("hub", "hub", 1, 9);
+        trie.put("hubcap", "hubcap", 3, 2);
+        trie.put("house", "house", 10, 10);
+
+        assertEquals(List.of("hub motor", "hubcap", "hub"), trie.top("hub", 10, 0));
+        assertEquals(List.of("hub", "hubcap", "hub motor"), trie.top("hu", 3, 1));
+        assertEquals(List.of("house", "hub"), trie.top("h", 2, 1));
+        assertEquals(List.of("hub motor"), trie.top("hub m", 5, 0));
+        assertTrue(trie.top("hx", 5, 0).isEmpty());
+    }
+
+    @Test
+    void collapsesNodesAgainAfterRemoval() {
+        PrefixTrie<String> trie = new PrefixTrie<>(1);
+        trie.put("abc", "abc", 1);
+        trie.put("abd", "abd", 2);
+        trie.put("ab", "ab", 3);
+        assertEquals(4, trie.nodeCount());
+
+        trie.remove("ab");
+        trie.remove("abd");
+        assertEquals(1, trie.size());
+        assertEquals(2, trie.nodeCount());
+        assertEquals(List.of("abc"), trie.top("a", 5, 0));
+    }
+
+    @Test
+    void matchesBruteForceAcrossUpdates() {
+        Random random = new Random(42);
+        PrefixTrie<String> trie = new PrefixTrie<>(1);
+        Map<String, Long> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String key = randomKey(random);
+            if (random.nextInt(4) == 0) {
+                trie.remove(key);
+                expected.remove(key);
+            } else {
+                long score = random.nextInt(1000);
+                trie.put(key, key, score);
+                expected.put(key, score);
+            }
+        }
+        assertEquals(expected.size(), trie.size());
+
+        for (String prefix : List.of("a", "ab", "ba", "cab", "abca")) {
+            List<Long> actual = new ArrayList<>();
+            for (String key : trie.top(prefix, 10, 0)) {
+                assertTrue(key.startsWith(prefix));
+                actual.add(expected.get(key));
+            }
+            List<Long> best = expected.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .collect(Collectors.toList());
+            assertEquals(best, actual, "prefix " + prefix);
+        }
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder key = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,27 @@
+-- pdf_documents as ddl-auto=update created it from the original entity, before Flyway,
+-- with a few rows; no flyway_schema_history, like the databases already in use
+create table pdf_documents (
+    id bigint identity not null,
+    content_type varchar(100),
+    created_by varchar(100),
+    edition varchar(100),
+    file_path varchar(500) not null,
+    file_size bigint,
+    filename varchar(255) not null,
+    is_active bit not null,
+    notes NVARCHAR(MAX),
+    page_count int,
+    product_code varchar(100),
+    publication_date date,
+    title varchar(255) not null,
+    upload_date datetime2(6) not null,
+    updated_date datetime2(6),
+    primary key (id)
+);
+
+insert into pdf_documents (title, filename, file_path, file_size, page_count, product_code, edition, is_active, upload_date)
+values ('First', 'first.pdf', 'uploads/first.pdf', 1000, 1, 'ABC', '2023', 1, '2024-01-01 10:00:00');
+insert into pdf_documents (title, filename, file_path, file_size, page_count, product_code, edition, is_active, upload_date)
+values ('Second', 'second.pdf', 'uploads/second.pdf', 2000, 2, 'ABC', '2024', 1, '2024-02-01 10:00:00');
+insert into pdf_documents (title, filename, file_path, file_size, page_count, product_code, edition, is_active, upload_date)
+values ('Removed', 'removed.pdf', 'uploads/removed.pdf', 3000, 3, 'XYZ', '2024', 0, '2024-03-01 10:00:00');